@@ -0,0 +1,82 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbolstandard.core2.CombinatorialDerivation;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import edu.utah.ece.async.sboldesigner.sbol.CombinatorialCSVWriter;
+import edu.utah.ece.async.sboldesigner.sbol.CombinatorialEnumeration;
+import edu.utah.ece.async.sboldesigner.sbol.CombinatorialSampler;
+
+/**
+ * Expanding a combinatorial design of SLOTS variable parts with variants
+ * choices each: materializing every design, sampling some, and writing the
+ * CSV of all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class CombinatorialBenchmarks {
+	private static final int SLOTS = 4;
+	private static final int SAMPLES = 100;
+
+	@Param({ "2", "4", "8" })
+	public int variants;
+
+	private SBOLDocument doc;
+	private CombinatorialDerivation derivation;
+	private CombinatorialEnumeration enumeration;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SBOLValidationException {
+		doc = SyntheticDesigns.createCombinatorial(SLOTS, variants, 42);
+		derivation = doc.getCombinatorialDerivation("root_derivation", "1");
+		enumeration = new CombinatorialEnumeration(doc, derivation);
+	}
+
+	@Benchmark
+	public SBOLDocument enumerate() throws SBOLValidationException {
+		SBOLDocument generated = new SBOLDocument();
+		generated.setDefaultURIprefix(SyntheticDesigns.URI_PREFIX);
+		for (CombinatorialEnumeration.Variant variant : new CombinatorialEnumeration(doc, derivation)) {
+			variant.materialize(generated);
+		}
+		return generated;
+	}
+
+	@Benchmark
+	public SBOLDocument sample() throws SBOLValidationException {
+		SBOLDocument generated = new SBOLDocument();
+		generated.setDefaultURIprefix(SyntheticDesigns.URI_PREFIX);
+		for (CombinatorialEnumeration.Variant variant : new CombinatorialSampler(enumeration, 42).sample(SAMPLES)) {
+			variant.materialize(generated);
+		}
+		return generated;
+	}
+
+	@Benchmark
+	public long writeCSV() throws IOException {
+		try (CombinatorialCSVWriter writer = new CombinatorialCSVWriter(enumeration, new StringWriter())) {
+			return writer.writeAll();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import com.google.common.eventbus.EventBus;
+
+import edu.utah.ece.async.sboldesigner.benchmarks.SyntheticDesigns.Shape;
+import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils;
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLDesign;
+
+/**
+ * Loading designs into the canvas, rebuilding their sequences and allocating
+ * displayIds, for every shape of SyntheticDesigns at a few sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class DesignBenchmarks {
+
+	@Param({ "LINEAR", "HIERARCHICAL", "ANNOTATED" })
+	public Shape shape;
+
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	private SBOLDocument doc;
+	private URI root;
+	private SBOLDesign design;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SBOLValidationException {
+		doc = SyntheticDesigns.create(shape, size, 42);
+		root = SyntheticDesigns.rootURI(doc);
+		design = new SBOLDesign(new EventBus());
+	}
+
+	/**
+	 * A fresh copy of the design for benchmarks that change it.
+	 */
+	@State(Scope.Thread)
+	public static class FreshDesign {
+		SBOLDocument doc;
+		ComponentDefinition root;
+
+		@Setup(Level.Invocation)
+		public void setUp(DesignBenchmarks benchmarks) throws SBOLValidationException {
+			doc = SyntheticDesigns.create(benchmarks.shape, benchmarks.size, 42);
+			root = doc.getComponentDefinition(SyntheticDesigns.rootURI(doc));
+		}
+	}
+
+	/**
+	 * A fresh copy of the design whose sequences were already rebuilt once.
+	 */
+	@State(Scope.Thread)
+	public static class RebuiltDesign {
+		SBOLDocument doc;
+		ComponentDefinition root;
+
+		@Setup(Level.Invocation)
+		public void setUp(DesignBenchmarks benchmarks) throws SBOLValidationException {
+			doc = SyntheticDesigns.create(benchmarks.shape, benchmarks.size, 42);
+			root = doc.getComponentDefinition(SyntheticDesigns.rootURI(doc));
+			SBOLUtils.rebuildSequences(root, doc);
+		}
+	}
+
+	@Benchmark
+	public boolean load() throws SBOLValidationException {
+		return design.load(doc, root, Collections.<String> emptyList());
+	}
+
+	@Benchmark
+	public Object prepare() {
+		return SBOLDesign.prepare(doc);
+	}
+
+	@Benchmark
+	public ComponentDefinition rebuildSequences(FreshDesign fresh) throws SBOLValidationException {
+		SBOLUtils.rebuildSequences(fresh.root, fresh.doc);
+		return fresh.root;
+	}
+
+	/**
+	 * Rebuilding again with nothing changed, which is what most edits of a
+	 * large design amount to.
+	 */
+	@Benchmark
+	public ComponentDefinition rebuildSequencesUnchanged(RebuiltDesign rebuilt) throws SBOLValidationException {
+		SBOLUtils.rebuildSequences(rebuilt.root, rebuilt.doc);
+		return rebuilt.root;
+	}
+
+	/**
+	 * A displayId for another child of the root, whose children are named
+	 * like getUniqueDisplayId names them, so the prefix always collides. After
+	 * the first call the allocator knows where the free suffixes start.
+	 */
+	@Benchmark
+	public String getUniqueDisplayId() throws SBOLValidationException {
+		return uniqueChildId(doc.getComponentDefinition(root), doc);
+	}
+
+	/**
+	 * The same on a design the allocator hasn't seen, so every child's
+	 * displayId is probed once.
+	 */
+	@Benchmark
+	public String getUniqueDisplayIdFirst(FreshDesign fresh) throws SBOLValidationException {
+		return uniqueChildId(fresh.root, fresh.doc);
+	}
+
+	private String uniqueChildId(ComponentDefinition rootCD, SBOLDocument doc) throws SBOLValidationException {
+		if (shape == Shape.ANNOTATED) {
+			return SBOLUtils.getUniqueDisplayId(rootCD, null, "annotation", "1", "SequenceAnnotation", doc);
+		}
+		return SBOLUtils.getUniqueDisplayId(rootCD, null, "c", "1", "Component", doc);
+	}
+}
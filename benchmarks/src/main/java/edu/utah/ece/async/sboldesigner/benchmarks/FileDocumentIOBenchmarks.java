@@ -0,0 +1,76 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLWriter;
+
+import edu.utah.ece.async.sboldesigner.benchmarks.SyntheticDesigns.Shape;
+import edu.utah.ece.async.sboldesigner.sbol.editor.io.FileDocumentIO;
+
+/**
+ * Opening a design file the way File > Open does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class FileDocumentIOBenchmarks {
+
+	@Param({ "LINEAR", "HIERARCHICAL", "ANNOTATED" })
+	public Shape shape;
+
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	private File file;
+	private String previousPath;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SBOLValidationException, IOException, SBOLConversionException {
+		file = File.createTempFile("benchmark", ".xml");
+		SBOLWriter.write(SyntheticDesigns.create(shape, size, 42), file);
+
+		// FileDocumentIO reads the file last opened, so point it at ours and
+		// put the user's back afterwards
+		Preferences path = Preferences.userRoot().node("path");
+		previousPath = path.get("path", null);
+		path.put("path", file.getPath());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Preferences path = Preferences.userRoot().node("path");
+		if (previousPath == null) {
+			path.remove("path");
+		} else {
+			path.put("path", previousPath);
+		}
+		file.delete();
+	}
+
+	@Benchmark
+	public SBOLDocument read() throws SBOLValidationException, IOException, SBOLConversionException {
+		return new FileDocumentIO(false).read();
+	}
+}
@@ -0,0 +1,70 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.awt.Image;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbolstandard.core2.OrientationType;
+
+import edu.utah.ece.async.sboldesigner.sbol.editor.Part;
+import edu.utah.ece.async.sboldesigner.sbol.editor.Parts;
+
+/**
+ * The glyph and role lookups done for every part drawn on the canvas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class PartBenchmarks {
+	private List<Part> parts;
+	private List<URI> roles;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		parts = new ArrayList<Part>();
+		roles = new ArrayList<URI>();
+		for (Part part : Parts.all()) {
+			parts.add(part);
+			roles.addAll(part.getRoles());
+		}
+	}
+
+	/**
+	 * Every glyph of every part, in all the variations the canvas asks for.
+	 */
+	@Benchmark
+	public void getImage(Blackhole blackhole) {
+		for (Part part : parts) {
+			for (int flags = 0; flags < 16; flags++) {
+				OrientationType orientation = (flags & 1) != 0 ? OrientationType.REVERSECOMPLEMENT
+						: OrientationType.INLINE;
+				Image image = part.getImage(orientation, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+				blackhole.consume(image);
+			}
+		}
+	}
+
+	@Benchmark
+	public void forRole(Blackhole blackhole) {
+		for (URI role : roles) {
+			blackhole.consume(Parts.forRole(role));
+		}
+	}
+}
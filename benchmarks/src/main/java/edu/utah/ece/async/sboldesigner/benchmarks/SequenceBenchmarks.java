@@ -0,0 +1,102 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.utah.ece.async.sboldesigner.sbol.CharSequenceUtil;
+import edu.utah.ece.async.sboldesigner.sbol.SequenceRope;
+
+/**
+ * The sequence views used when assembling implied sequences and exporting
+ * reverse-strand parts: CharSequenceUtil transforms and SequenceRope.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SequenceBenchmarks {
+	private static final int PIECES = 100;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int length;
+
+	private String sequence;
+	private List<CharSequence> pieces;
+	private ByteBuffer buffer;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sequence = SyntheticDesigns.dna(length, new Random(42));
+		pieces = new ArrayList<CharSequence>();
+		int pieceLength = Math.max(1, length / PIECES);
+		for (int start = 0; start < length; start += pieceLength) {
+			CharSequence piece = sequence.substring(start, Math.min(length, start + pieceLength));
+			// every other piece on the reverse strand
+			pieces.add(pieces.size() % 2 == 0 ? piece : CharSequenceUtil.reverseComplement(piece));
+		}
+		buffer = ByteBuffer.allocate(length);
+	}
+
+	@Benchmark
+	public String reverseComplement() {
+		return CharSequenceUtil.reverseComplement(sequence).toString();
+	}
+
+	/**
+	 * Reading a view a character at a time, as code that doesn't know about
+	 * getChars does.
+	 */
+	@Benchmark
+	public int reverseComplementCharAt() {
+		CharSequence view = CharSequenceUtil.reverseComplement(sequence);
+		int hash = 0;
+		for (int i = 0; i < view.length(); i++) {
+			hash = 31 * hash + view.charAt(i);
+		}
+		return hash;
+	}
+
+	@Benchmark
+	public String upperCaseReverseComplementSlice() {
+		CharSequence view = CharSequenceUtil.reverseComplement(sequence).subSequence(length / 4, length / 2);
+		return CharSequenceUtil.toUpperCase(view).toString();
+	}
+
+	@Benchmark
+	public StringBuilder reverseComplementWriteTo() throws IOException {
+		StringBuilder out = new StringBuilder(length);
+		CharSequenceUtil.writeTo(CharSequenceUtil.reverseComplement(sequence), out);
+		return out;
+	}
+
+	@Benchmark
+	public ByteBuffer reverseComplementToBytes() {
+		buffer.clear();
+		CharSequenceUtil.writeTo(CharSequenceUtil.reverseComplement(sequence), buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public String ropeToString() {
+		return SequenceRope.of(pieces).toString();
+	}
+}
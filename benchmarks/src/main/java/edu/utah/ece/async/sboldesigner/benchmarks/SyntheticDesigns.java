@@ -0,0 +1,168 @@
+package edu.utah.ece.async.sboldesigner.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.CombinatorialDerivation;
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OperatorType;
+import org.sbolstandard.core2.RestrictionType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.SequenceOntology;
+import org.sbolstandard.core2.StrategyType;
+import org.sbolstandard.core2.VariableComponent;
+
+/**
+ * Generates the designs the benchmarks run on. The same shape, size and seed
+ * always give the same design, whose root is the ComponentDefinition "root".
+ */
+public class SyntheticDesigns {
+	private SyntheticDesigns() {
+	}
+
+	public enum Shape {
+		/**
+		 * size parts in a row under the root.
+		 */
+		LINEAR,
+		/**
+		 * size parts as the leaves of a tree of composite parts, FANOUT
+		 * children each.
+		 */
+		HIERARCHICAL,
+		/**
+		 * A root with a sequence of size * 100 bases and size annotations on
+		 * it, like an imported GenBank record.
+		 */
+		ANNOTATED
+	}
+
+	public static final String URI_PREFIX = "http://sboldesigner.github.io/benchmark/";
+
+	static final int FANOUT = 4;
+	static final int PART_LENGTH = 500;
+
+	private static final URI[] ROLES = { SequenceOntology.PROMOTER, SequenceOntology.RIBOSOME_ENTRY_SITE,
+			SequenceOntology.CDS, SequenceOntology.TERMINATOR };
+
+	public static SBOLDocument create(Shape shape, int size, long seed) throws SBOLValidationException {
+		SBOLDocument doc = new SBOLDocument();
+		doc.setDefaultURIprefix(URI_PREFIX);
+		Random random = new Random(seed);
+
+		switch (shape) {
+		case LINEAR:
+			composite(doc, "root", parts(doc, "part", size, random));
+			break;
+		case HIERARCHICAL:
+			List<ComponentDefinition> level = parts(doc, "part", size, random);
+			for (int depth = 0; level.size() > FANOUT; depth++) {
+				List<ComponentDefinition> parents = new ArrayList<ComponentDefinition>();
+				for (int i = 0; i < level.size(); i += FANOUT) {
+					parents.add(composite(doc, "node" + depth + "_" + i / FANOUT,
+							level.subList(i, Math.min(level.size(), i + FANOUT))));
+				}
+				level = parents;
+			}
+			composite(doc, "root", level);
+			break;
+		case ANNOTATED:
+			ComponentDefinition root = doc.createComponentDefinition("root", "1", ComponentDefinition.DNA);
+			root.addRole(SequenceOntology.ENGINEERED_REGION);
+			root.addSequence(doc.createSequence("root_sequence", "1", dna(size * 100, random), Sequence.IUPAC_DNA));
+			for (int i = 0; i < size; i++) {
+				int start = i * 100 + 1;
+				SequenceAnnotation annotation = root.createSequenceAnnotation(childId("annotation", i), "range",
+						start, start + 79);
+				annotation.addRole(ROLES[i % ROLES.length]);
+			}
+			break;
+		}
+		return doc;
+	}
+
+	/**
+	 * Creates a root template of slots parts and a derivation that lets every
+	 * one of them be any of variants parts, so it has variants^slots designs.
+	 */
+	public static SBOLDocument createCombinatorial(int slots, int variants, long seed)
+			throws SBOLValidationException {
+		SBOLDocument doc = new SBOLDocument();
+		doc.setDefaultURIprefix(URI_PREFIX);
+		Random random = new Random(seed);
+
+		ComponentDefinition template = composite(doc, "root", parts(doc, "part", slots, random));
+		CombinatorialDerivation derivation = doc.createCombinatorialDerivation("root_derivation", "1",
+				template.getIdentity());
+		derivation.setStrategy(StrategyType.ENUMERATE);
+		for (int i = 0; i < slots; i++) {
+			Component component = template.getComponent(childId("c", i));
+			VariableComponent variable = derivation.createVariableComponent(
+					component.getDisplayId() + "_VariableComponent", OperatorType.ONE, component.getIdentity());
+			for (ComponentDefinition variant : parts(doc, "slot" + i + "_variant", variants, random)) {
+				variable.addVariant(variant.getIdentity());
+			}
+		}
+		return doc;
+	}
+
+	public static URI rootURI(SBOLDocument doc) {
+		return doc.getComponentDefinition("root", "1").getIdentity();
+	}
+
+	private static List<ComponentDefinition> parts(SBOLDocument doc, String prefix, int count, Random random)
+			throws SBOLValidationException {
+		List<ComponentDefinition> parts = new ArrayList<ComponentDefinition>();
+		for (int i = 0; i < count; i++) {
+			ComponentDefinition part = doc.createComponentDefinition(prefix + i, "1", ComponentDefinition.DNA);
+			part.addRole(ROLES[i % ROLES.length]);
+			part.addSequence(
+					doc.createSequence(prefix + i + "_sequence", "1", dna(PART_LENGTH, random), Sequence.IUPAC_DNA));
+			parts.add(part);
+		}
+		return parts;
+	}
+
+	/**
+	 * Creates a part made of children in order.
+	 */
+	private static ComponentDefinition composite(SBOLDocument doc, String displayId,
+			List<ComponentDefinition> children) throws SBOLValidationException {
+		ComponentDefinition composite = doc.createComponentDefinition(displayId, "1", ComponentDefinition.DNA);
+		composite.addRole(SequenceOntology.ENGINEERED_REGION);
+		Component previous = null;
+		for (int i = 0; i < children.size(); i++) {
+			Component component = composite.createComponent(childId("c", i), AccessType.PUBLIC,
+					children.get(i).getIdentity());
+			if (previous != null) {
+				composite.createSequenceConstraint("sc" + i, RestrictionType.PRECEDES, previous.getIdentity(),
+						component.getIdentity());
+			}
+			previous = component;
+		}
+		return composite;
+	}
+
+	/**
+	 * Names the i'th child the way SBOLUtils.getUniqueDisplayId numbers them:
+	 * prefix, prefix1, prefix2, ...
+	 */
+	static String childId(String prefix, int i) {
+		return i == 0 ? prefix : prefix + i;
+	}
+
+	static String dna(int length, Random random) {
+		char[] bases = new char[length];
+		for (int i = 0; i < length; i++) {
+			bases[i] = "acgt".charAt(random.nextInt(4));
+		}
+		return new String(bases);
+	}
+}
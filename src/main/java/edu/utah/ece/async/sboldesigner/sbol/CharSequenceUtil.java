@@ -15,6 +15,11 @@
 
 package edu.utah.ece.async.sboldesigner.sbol;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
 /**
  * Char sequence utility functions.
  * 
@@ -22,7 +27,9 @@ package edu.utah.ece.async.sboldesigner.sbol;
  */
 public class CharSequenceUtil {
 	private CharSequenceUtil() {}
-	
+
+	private static final int CHUNK = 8192;
+
 	public static CharSequence shorten(final CharSequence seq, final int maxLength) {
 		int length = seq.length();
 		if (length < maxLength) {
@@ -36,121 +43,241 @@ public class CharSequenceUtil {
 	}
 	
 	public static CharSequence toUpperCase(final CharSequence seq) {
-		return new TransformingCharSequence(seq, UPPER_CASE);
+		return transform(seq, UPPER_CASE, false);
 	}
 	
 	public static CharSequence toLowerCase(final CharSequence seq) {
-		return new TransformingCharSequence(seq, LOWER_CASE);
+		return transform(seq, LOWER_CASE, false);
 	}
 	
 	public static CharSequence complement(final CharSequence seq) {
-		return new TransformingCharSequence(seq, COMPLEMENT);
+		return transform(seq, COMPLEMENT, false);
+	}
+	
+	public static CharSequence reverse(final CharSequence seq) {
+		return transform(seq, IDENTITY, true);
 	}
 	
 	public static CharSequence reverseComplement(final CharSequence seq) {
-		final int maxIndex = seq.length() - 1;
-		CharSequenceTransformer transformer = new ComplementTransformer() {
-			@Override
-			public int transformIndex(int index) {
-				return maxIndex - index;
-			}
-		};
-		return new TransformingCharSequence(seq, transformer);
+		return transform(seq, COMPLEMENT, true);
+	}
+	
+	/**
+	 * Copies the characters of seq from srcBegin to srcEnd into dst at
+	 * dstBegin, in bulk for the sequences that support it.
+	 */
+	public static void getChars(CharSequence seq, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		if (seq instanceof String) {
+			((String) seq).getChars(srcBegin, srcEnd, dst, dstBegin);
+		}
+		else if (seq instanceof StringBuilder) {
+			((StringBuilder) seq).getChars(srcBegin, srcEnd, dst, dstBegin);
+		}
+		else if (seq instanceof TransformingCharSequence) {
+			((TransformingCharSequence) seq).getChars(srcBegin, srcEnd, dst, dstBegin);
+		}
+		else if (seq instanceof SequenceRope) {
+			((SequenceRope) seq).getChars(srcBegin, srcEnd, dst, dstBegin);
+		}
+		else {
+			if (srcBegin < 0 || srcEnd > seq.length() || srcBegin > srcEnd) {
+				throw new IndexOutOfBoundsException("start: " + srcBegin + ", end: " + srcEnd + ", length: " + seq.length());
+			}
+			for (int i = srcBegin; i < srcEnd; i++) {
+				dst[dstBegin++] = seq.charAt(i);
+			}
+		}
 	}
 
-	private static final CharSequenceTransformer UPPER_CASE = new CharSequenceTransformer() {
-		public char transformChar(char c) {
-			return Character.toUpperCase(c);
+	/**
+	 * Appends seq to out a chunk at a time.
+	 */
+	public static void writeTo(CharSequence seq, Appendable out) throws IOException {
+		if (seq instanceof String) {
+			out.append(seq);
+			return;
+		}
+		int length = seq.length();
+		char[] chunk = new char[Math.min(CHUNK, length)];
+		for (int start = 0; start < length; start += chunk.length) {
+			int n = Math.min(chunk.length, length - start);
+			getChars(seq, start, start + n, chunk, 0);
+			if (out instanceof StringBuilder) {
+				((StringBuilder) out).append(chunk, 0, n);
+			}
+			else if (out instanceof Writer) {
+				((Writer) out).write(chunk, 0, n);
+			}
+			else {
+				out.append(CharBuffer.wrap(chunk, 0, n));
+			}
 		}
-	};
+	}
 
-	private static final CharSequenceTransformer LOWER_CASE = new CharSequenceTransformer() {
-		public char transformChar(char c) {
-			return Character.toLowerCase(c);
+	/**
+	 * Puts seq into out one byte per character, which is enough for
+	 * nucleotide and amino acid sequences.
+	 */
+	public static void writeTo(CharSequence seq, ByteBuffer out) {
+		int length = seq.length();
+		char[] chunk = new char[Math.min(CHUNK, length)];
+		for (int start = 0; start < length; start += chunk.length) {
+			int n = Math.min(chunk.length, length - start);
+			getChars(seq, start, start + n, chunk, 0);
+			for (int i = 0; i < n; i++) {
+				out.put((byte) chunk[i]);
+			}
 		}
-	};
+	}
 
-	private static final CharSequenceTransformer COMPLEMENT = new ComplementTransformer();
-	
-	private static class CharSequenceTransformer {
-		public char transformChar(char c) {
-			return c;
+	private static final Transform IDENTITY = new Transform(new char[128], Transform.KEEP_CASE);
+	private static final Transform UPPER_CASE = new Transform(new char[128], Transform.UPPER);
+	private static final Transform LOWER_CASE = new Transform(new char[128], Transform.LOWER);
+	private static final Transform COMPLEMENT = new Transform(new char[128], Transform.KEEP_CASE);
+
+	static {
+		for (char c = 0; c < 128; c++) {
+			IDENTITY.table[c] = c;
+			UPPER_CASE.table[c] = Character.toUpperCase(c);
+			LOWER_CASE.table[c] = Character.toLowerCase(c);
+			COMPLEMENT.table[c] = c;
 		}
-		
-		public int transformIndex(int index) {
-			return index;
+		String bases = "ATUGCYRSWKMBDHVN";
+		String complements = "TAACGRYSWMKVHDBN";
+		for (int i = 0; i < bases.length(); i++) {
+			char base = bases.charAt(i);
+			char complement = complements.charAt(i);
+			COMPLEMENT.table[base] = complement;
+			COMPLEMENT.table[Character.toLowerCase(base)] = Character.toLowerCase(complement);
 		}
 	}
-	
-	private static class ComplementTransformer extends CharSequenceTransformer {
-		public char transformChar(char c) {
-			char upper = Character.toUpperCase(c);
-			char complement = transformUppercase(upper);
-			return c == upper ? complement : Character.toLowerCase(complement); 
-		}
-		
-		private char transformUppercase(char c) {	
-			switch (c) {
-				case 'A': return 'T';
-				case 'T': return 'A';
-				case 'U': return 'A';
-				case 'G': return 'C';
-				case 'C': return 'G';
-				case 'Y': return 'R';
-				case 'R': return 'Y';
-				case 'S': return 'S';
-				case 'W': return 'W';
-				case 'K': return 'M';
-				case 'M': return 'K';
-				case 'B': return 'V';
-				case 'D': return 'H';
-				case 'H': return 'D';
-				case 'V': return 'B';
-				case 'N': return 'N';	
+
+	/**
+	 * A character mapping given by a table of the ASCII characters. Others are
+	 * only changed by case mappings.
+	 */
+	private static class Transform {
+		static final int KEEP_CASE = 0;
+		static final int UPPER = 1;
+		static final int LOWER = 2;
+
+		final char[] table;
+		final int otherCase;
+
+		Transform(char[] table, int otherCase) {
+			this.table = table;
+			this.otherCase = otherCase;
+		}
+
+		/**
+		 * Returns this transform followed by next.
+		 */
+		Transform then(Transform next) {
+			char[] composed = new char[128];
+			for (int c = 0; c < 128; c++) {
+				char mapped = table[c];
+				composed[c] = mapped < 128 ? next.table[mapped] : next.mapOther(mapped);
+			}
+			return new Transform(composed, next.otherCase != KEEP_CASE ? next.otherCase : otherCase);
+		}
+
+		char map(char c) {
+			return c < 128 ? table[c] : mapOther(c);
+		}
+
+		char mapOther(char c) {
+			switch (otherCase) {
+				case UPPER: return Character.toUpperCase(c);
+				case LOWER: return Character.toLowerCase(c);
 				default: return c;
 			}
 		}
-	};
-	
+	}
+
+	/**
+	 * Returns a view of seq mapped by transform and reversed if reverse is
+	 * true. A view of a view is flattened into one view of the underlying
+	 * sequence, so views can be stacked without adding a call per character.
+	 */
+	private static CharSequence transform(CharSequence seq, Transform transform, boolean reverse) {
+		if (seq instanceof TransformingCharSequence) {
+			TransformingCharSequence view = (TransformingCharSequence) seq;
+			return new TransformingCharSequence(view.baseSeq, view.start, view.end, view.reversed != reverse,
+					view.transform.then(transform));
+		}
+		return new TransformingCharSequence(seq, 0, seq.length(), reverse, transform);
+	}
+
 	private static class TransformingCharSequence implements CharSequence {
 		private final CharSequence baseSeq;
-		private final CharSequenceTransformer transformer;
-		
-		public TransformingCharSequence(CharSequence baseSeq, CharSequenceTransformer transformer) {
+		private final int start;
+		private final int end;
+		private final boolean reversed;
+		private final Transform transform;
+
+		public TransformingCharSequence(CharSequence baseSeq, int start, int end, boolean reversed, Transform transform) {
 	        this.baseSeq = baseSeq;
-	        this.transformer = transformer;
+	        this.start = start;
+	        this.end = end;
+	        this.reversed = reversed;
+	        this.transform = transform;
         }
 
 		@Override
         public char charAt(int index) {
-			int newIndex = transformer.transformIndex(index);
-	        char ch = baseSeq.charAt(newIndex);
-			return transformer.transformChar(ch);
+			if (index < 0 || index >= length()) {
+				throw new IndexOutOfBoundsException("index: " + index + ", length: " + length());
+			}
+			int newIndex = reversed ? end - 1 - index : start + index;
+			return transform.map(baseSeq.charAt(newIndex));
         }
 
 		@Override
         public int length() {
-	        return baseSeq.length();
+	        return end - start;
         }
 
 		@Override
-        public CharSequence subSequence(int start, int end) {
-			int newStart = transformer.transformIndex(start);
-			int newEnd = transformer.transformIndex(end);
-			CharSequence newBaseSeq = baseSeq.subSequence(newStart, newEnd);
-	        return new TransformingCharSequence(newBaseSeq, transformer);
+        public CharSequence subSequence(int subStart, int subEnd) {
+			if (subStart < 0 || subEnd > length() || subStart > subEnd) {
+				throw new IndexOutOfBoundsException("start: " + subStart + ", end: " + subEnd + ", length: " + length());
+			}
+			// a reversed view reads its base backwards from end
+			if (reversed) {
+				return new TransformingCharSequence(baseSeq, end - subEnd, end - subStart, true, transform);
+			}
+			return new TransformingCharSequence(baseSeq, start + subStart, start + subEnd, false, transform);
         }
 
+		void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+			if (srcBegin < 0 || srcEnd > length() || srcBegin > srcEnd) {
+				throw new IndexOutOfBoundsException("start: " + srcBegin + ", end: " + srcEnd + ", length: " + length());
+			}
+			int n = srcEnd - srcBegin;
+			int baseBegin = reversed ? end - srcEnd : start + srcBegin;
+			CharSequenceUtil.getChars(baseSeq, baseBegin, baseBegin + n, dst, dstBegin);
+
+			char[] table = transform.table;
+			for (int i = dstBegin; i < dstBegin + n; i++) {
+				char c = dst[i];
+				dst[i] = c < 128 ? table[c] : transform.mapOther(c);
+			}
+			if (reversed) {
+				for (int i = dstBegin, j = dstBegin + n - 1; i < j; i++, j--) {
+					char c = dst[i];
+					dst[i] = dst[j];
+					dst[j] = c;
+				}
+			}
+		}
+
 		@Override
         public String toString() {
-			int length = length();
-	        StringBuilder sb = new StringBuilder(length);
-	        for (int i = 0; i < length; i++) {
-	        	sb.append(charAt(i));
-	        }
-	        return sb.toString();
+			char[] chars = new char[length()];
+			getChars(0, chars.length, chars, 0);
+	        return new String(chars);
         }
-		
+
 	}
 
 	public static String toTitleCase(String input) {
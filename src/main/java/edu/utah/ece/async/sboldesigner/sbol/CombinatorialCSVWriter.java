@@ -0,0 +1,118 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+
+/**
+ * Writes the designs of a CombinatorialEnumeration as CSV rows straight from
+ * the variant stream, without materializing them. Every row lists the
+ * displayIds of the parts of one design in template order, the same as the
+ * sorted Components of the materialized design.
+ *
+ * The cells of the fixed template parts and of every variant are built once,
+ * so writing a row only copies cached chars into a buffered Writer and heap
+ * use doesn't grow with the number of rows.
+ */
+public class CombinatorialCSVWriter implements Closeable {
+	private static final char[] SEPARATOR = ", ".toCharArray();
+
+	private final CombinatorialEnumeration enumeration;
+	private final BufferedWriter out;
+
+	/**
+	 * One entry per Component of the template in sorted order. Fixed parts
+	 * hold their cell, variable ones the index of their slot.
+	 */
+	private final List<char[]> fixedCells = new ArrayList<char[]>();
+	private final int[] slotOfColumn;
+
+	/**
+	 * Cells of the variants of every slot, created the first time a variant
+	 * is written.
+	 */
+	private final List<Map<ComponentDefinition, char[]>> variantCells = new ArrayList<Map<ComponentDefinition, char[]>>();
+
+	public CombinatorialCSVWriter(CombinatorialEnumeration enumeration, Writer out) {
+		this.enumeration = enumeration;
+		this.out = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out, 1 << 16);
+
+		List<Component> columns = new ArrayList<Component>();
+		for (Component component : enumeration.getDerivation().getTemplate().getSortedComponents()) {
+			columns.add(component);
+		}
+		slotOfColumn = new int[columns.size()];
+		for (int i = 0; i < columns.size(); i++) {
+			Component component = columns.get(i);
+			slotOfColumn[i] = -1;
+			for (int slot = 0; slot < enumeration.getSlotCount(); slot++) {
+				if (component.getIdentity().equals(enumeration.getVariable(slot).getVariableURI())) {
+					slotOfColumn[i] = slot;
+					break;
+				}
+			}
+			fixedCells.add(slotOfColumn[i] < 0 ? cell(component.getDefinition()) : null);
+		}
+		for (int slot = 0; slot < enumeration.getSlotCount(); slot++) {
+			variantCells.add(new IdentityHashMap<ComponentDefinition, char[]>());
+		}
+	}
+
+	private static char[] cell(ComponentDefinition definition) {
+		String displayId = definition == null ? "" : definition.getDisplayId();
+		char[] cell = new char[displayId.length() + SEPARATOR.length];
+		displayId.getChars(0, displayId.length(), cell, 0);
+		System.arraycopy(SEPARATOR, 0, cell, displayId.length(), SEPARATOR.length);
+		return cell;
+	}
+
+	/**
+	 * Writes the row of one design.
+	 */
+	public void write(CombinatorialEnumeration.Variant variant) throws IOException {
+		for (int i = 0; i < slotOfColumn.length; i++) {
+			int slot = slotOfColumn[i];
+			if (slot < 0) {
+				out.write(fixedCells.get(i));
+				continue;
+			}
+			Map<ComponentDefinition, char[]> cells = variantCells.get(slot);
+			for (ComponentDefinition child : variant.getGroup(slot)) {
+				char[] cell = cells.get(child);
+				if (cell == null) {
+					cell = cell(child);
+					cells.put(child, cell);
+				}
+				out.write(cell);
+			}
+		}
+		out.newLine();
+	}
+
+	/**
+	 * Writes the rows of all the designs in the enumeration and returns how
+	 * many were written.
+	 */
+	public long writeAll() throws IOException {
+		long rows = 0;
+		for (CombinatorialEnumeration.Variant variant : enumeration) {
+			write(variant);
+			rows++;
+		}
+		out.flush();
+		return rows;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
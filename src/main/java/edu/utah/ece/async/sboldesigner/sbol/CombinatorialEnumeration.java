@@ -0,0 +1,327 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.sbolstandard.core2.CombinatorialDerivation;
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OperatorType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.VariableComponent;
+
+/**
+ * The designs described by a CombinatorialDerivation, enumerated lazily.
+ *
+ * Every VariableComponent is a slot holding the groups of variants its
+ * operator allows, and a design is an index tuple with one group per slot. The
+ * number of groups of a slot follows from its operator (n, n + 1, 2^n - 1 or
+ * 2^n for n variants) and a group is decoded from its index on demand, so the
+ * groups are never built up front.
+ * Designs are numbered in mixed radix (the last slot changes fastest), so they
+ * can be iterated, split or looked up by index without touching the
+ * SBOLDocument. A ComponentDefinition is only created when a Variant is
+ * materialized, and then only for that design.
+ */
+public class CombinatorialEnumeration implements Iterable<CombinatorialEnumeration.Variant> {
+	private final SBOLDocument doc;
+	private final CombinatorialDerivation derivation;
+	private final List<Slot> slots = new ArrayList<Slot>();
+	private final long size;
+
+	/**
+	 * Throws ArithmeticException if the designs can't be numbered in a long,
+	 * i.e. a ONEORMORE or ZEROORMORE pool has more than 62 variants or there
+	 * are more than Long.MAX_VALUE designs.
+	 */
+	public CombinatorialEnumeration(SBOLDocument doc, CombinatorialDerivation derivation)
+			throws SBOLValidationException {
+		this.doc = doc;
+		this.derivation = derivation;
+
+		long size = 1;
+		try {
+			for (VariableComponent vc : derivation.getVariableComponents()) {
+				Slot slot = new Slot(vc, CombinatorialExpansionUtil.collectVariants(doc, vc));
+				slots.add(slot);
+				size = Math.multiplyExact(size, slot.size());
+			}
+		} catch (ArithmeticException e) {
+			throw new ArithmeticException(derivation.getDisplayId() + " has too many variants to enumerate or sample");
+		}
+		this.size = size;
+	}
+
+	private static class Slot {
+		final VariableComponent variable;
+		final OperatorType operator;
+		final ComponentDefinition[] variants;
+		final VariantSubsets subsets;
+		final long size;
+
+		Slot(VariableComponent variable, Set<ComponentDefinition> variants) {
+			this.variable = variable;
+			this.operator = variable.getOperator();
+			// a fixed order keeps indices, and so seeded samples, reproducible
+			this.variants = variants.toArray(new ComponentDefinition[0]);
+			Arrays.sort(this.variants, Comparator.comparing(ComponentDefinition::getIdentity));
+
+			int n = this.variants.length;
+			switch (operator) {
+			case ONE:
+				subsets = null;
+				size = n;
+				break;
+			case ZEROORONE:
+				subsets = null;
+				size = n + 1;
+				break;
+			case ONEORMORE:
+			case ZEROORMORE:
+				subsets = new VariantSubsets(this.variants, operator == OperatorType.ZEROORMORE);
+				size = subsets.size();
+				break;
+			default:
+				throw new IllegalArgumentException(operator.toString() + " operator not supported");
+			}
+		}
+
+		long size() {
+			return size;
+		}
+
+		/**
+		 * For ONE and ZEROORONE the index picks a single variant (0 being the
+		 * empty group for ZEROORONE), for ONEORMORE and ZEROORMORE it's the
+		 * index of a subset in VariantSubsets.
+		 */
+		Set<ComponentDefinition> group(long index) {
+			switch (operator) {
+			case ONE:
+				return Collections.singleton(variants[(int) index]);
+			case ZEROORONE:
+				return index == 0 ? Collections.<ComponentDefinition> emptySet()
+						: Collections.singleton(variants[(int) index - 1]);
+			default:
+				return subsets.get(index);
+			}
+		}
+	}
+
+	/**
+	 * One design of the enumeration, identified by the group chosen for every
+	 * slot.
+	 */
+	public class Variant {
+		private final long index;
+		private final long[] groups;
+
+		private Variant(long index, long[] groups) {
+			this.index = index;
+			this.groups = groups;
+		}
+
+		public long getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns the variants chosen for the slot'th VariableComponent.
+		 */
+		public Set<ComponentDefinition> getGroup(int slot) {
+			return slots.get(slot).group(groups[slot]);
+		}
+
+		/**
+		 * Creates the ComponentDefinition for this design in the enumeration's
+		 * SBOLDocument.
+		 */
+		public ComponentDefinition materialize() throws SBOLValidationException {
+			ComponentDefinition template = derivation.getTemplate();
+			String uniqueId = SBOLUtils.getUniqueDisplayId(null, null,
+					template.getDisplayId() + "_GeneratedInstance", template.getVersion(), "CD", doc);
+			return CombinatorialEnumeration.this.materialize(this, doc, uniqueId);
+		}
+
+		/**
+		 * Creates the ComponentDefinition for this design in target, together
+		 * with copies of the definitions it refers to. The displayId is derived
+		 * from the design's index, so designs materialized into different
+		 * documents never clash. Reads the enumeration's SBOLDocument only, so
+		 * designs can be materialized into separate documents concurrently.
+		 */
+		public ComponentDefinition materialize(SBOLDocument target) throws SBOLValidationException {
+			ComponentDefinition template = derivation.getTemplate();
+			String uniqueId = SBOLUtils.getUniqueDisplayId(null, null,
+					template.getDisplayId() + "_GeneratedInstance_" + index, template.getVersion(), "CD", target);
+			ComponentDefinition instance = CombinatorialEnumeration.this.materialize(this, target, uniqueId);
+			for (Component component : instance.getComponents()) {
+				ComponentDefinition definition = doc.getComponentDefinition(component.getDefinitionURI());
+				if (definition != null) {
+					doc.createRecursiveCopy(target, definition);
+				}
+			}
+			return instance;
+		}
+	}
+
+	public CombinatorialDerivation getDerivation() {
+		return derivation;
+	}
+
+	/**
+	 * The number of VariableComponents.
+	 */
+	public int getSlotCount() {
+		return slots.size();
+	}
+
+	public VariableComponent getVariable(int slot) {
+		return slots.get(slot).variable;
+	}
+
+	/**
+	 * The number of groups of variants the slot'th VariableComponent can take.
+	 */
+	public long getGroupCount(int slot) {
+		return slots.get(slot).size();
+	}
+
+	/**
+	 * The number of designs. Throws ArithmeticException in the constructor if
+	 * it doesn't fit in a long.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the index'th design by decoding index in mixed radix.
+	 */
+	public Variant get(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index + " of " + size);
+		}
+		long[] groups = new long[slots.size()];
+		long rest = index;
+		for (int i = slots.size() - 1; i >= 0; i--) {
+			long radix = slots.get(i).size();
+			groups[i] = rest % radix;
+			rest /= radix;
+		}
+		return new Variant(index, groups);
+	}
+
+	/**
+	 * Returns the design with the given group index for every slot, the
+	 * inverse of get(long).
+	 */
+	public Variant get(long[] groups) {
+		if (groups.length != slots.size()) {
+			throw new IllegalArgumentException(groups.length + " groups for " + slots.size() + " slots");
+		}
+		long index = 0;
+		for (int i = 0; i < slots.size(); i++) {
+			long radix = slots.get(i).size();
+			if (groups[i] < 0 || groups[i] >= radix) {
+				throw new IndexOutOfBoundsException(groups[i] + " of " + radix);
+			}
+			index = index * radix + groups[i];
+		}
+		return new Variant(index, groups.clone());
+	}
+
+	private ComponentDefinition materialize(Variant variant, SBOLDocument target, String displayId)
+			throws SBOLValidationException {
+		ComponentDefinition template = derivation.getTemplate();
+		ComponentDefinition instance = CombinatorialExpansionUtil.createTemplateCopy(target, derivation, displayId);
+		for (int i = 0; i < slots.size(); i++) {
+			Component original = template.getComponent(slots.get(i).variable.getVariableURI());
+			CombinatorialExpansionUtil.addChildren(template, original, instance, variant.getGroup(i));
+		}
+		return instance;
+	}
+
+	@Override
+	public Iterator<Variant> iterator() {
+		return new Iterator<Variant>() {
+			private long next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Variant next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return get(next++);
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<Variant> spliterator() {
+		return new VariantSpliterator(0, size);
+	}
+
+	public Stream<Variant> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Splits the index range in halves.
+	 */
+	private class VariantSpliterator implements Spliterator<Variant> {
+		private long from;
+		private final long to;
+
+		VariantSpliterator(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Variant> action) {
+			if (from >= to) {
+				return false;
+			}
+			action.accept(get(from++));
+			return true;
+		}
+
+		@Override
+		public Spliterator<Variant> trySplit() {
+			long mid = from + (to - from) / 2;
+			if (mid <= from) {
+				return null;
+			}
+			Spliterator<Variant> prefix = new VariantSpliterator(from, mid);
+			from = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return to - from;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
+}
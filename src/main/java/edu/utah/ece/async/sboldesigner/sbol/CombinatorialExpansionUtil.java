@@ -1,14 +1,28 @@
 package edu.utah.ece.async.sboldesigner.sbol;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.concurrent.ThreadLocalRandom;
-
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.apache.commons.io.FilenameUtils;
@@ -17,10 +31,11 @@ import org.sbolstandard.core2.Collection;
 import org.sbolstandard.core2.CombinatorialDerivation;
 import org.sbolstandard.core2.Component;
 import org.sbolstandard.core2.ComponentDefinition;
-import org.sbolstandard.core2.OperatorType;
 import org.sbolstandard.core2.RestrictionType;
+import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLWriter;
 import org.sbolstandard.core2.SequenceAnnotation;
 import org.sbolstandard.core2.SequenceConstraint;
 import org.sbolstandard.core2.StrategyType;
@@ -29,18 +44,39 @@ import org.sbolstandard.core2.VariableComponent;
 
 import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
 import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.CombinatorialDerivationInputDialog;
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.LoadingDialog;
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.MessageDialog;
+import edu.utah.ece.async.sboldesigner.swing.FormBuilder;
 
 public class CombinatorialExpansionUtil {
 
-	public static SBOLDocument createCombinatorialDesign(java.awt.Component panel, SBOLDocument doc) throws SBOLValidationException, FileNotFoundException {
+	/**
+	 * Number of designs per shard when expanding in parallel.
+	 */
+	public static final long SHARD_SIZE = 1000;
+
+	/**
+	 * Expands a combinatorial design picked by the user. Returns the generated
+	 * designs, or null if the user canceled or chose to write them straight to
+	 * shard files next to file. Shard files are written in the background
+	 * while a cancelable progress dialog is shown.
+	 */
+	public static SBOLDocument createCombinatorialDesign(java.awt.Component panel, SBOLDocument doc, File file)
+			throws SBOLValidationException, SBOLConversionException, IOException {
 		CombinatorialDerivation derivation = CombinatorialDerivationInputDialog.pickCombinatorialDerivation(panel, doc, null);
 		if (derivation == null) {
 			JOptionPane.showMessageDialog(null, "There are no combinatorial designs");
 			return null;
 		}
 
-		HashSet<ComponentDefinition> enumeration = enumerate(doc, derivation);
-		if (enumeration.isEmpty()) {
+		CombinatorialEnumeration enumeration;
+		try {
+			enumeration = new CombinatorialEnumeration(doc, derivation);
+		} catch (ArithmeticException e) {
+			JOptionPane.showMessageDialog(null, "There are too many variants to enumerate or sample");
+			return null;
+		}
+		if (enumeration.size() == 0) {
 			JOptionPane.showMessageDialog(null, "There are no variants to enumerate");
 			return null;
 		}
@@ -74,33 +110,35 @@ public class CombinatorialExpansionUtil {
             	} else {
             	    f = new File(f.toString() + ".csv");  // append .xml if "foo.jpg.xml" is OK
             	}
-            	PrintWriter writer = new PrintWriter(f);
-            	String s;
-	        	for(ComponentDefinition cd: enumeration)
-	    		{
-	        		s = "";
-	    			for(Component comp: cd.getSortedComponents())
-	    			{
-	    				s += comp.getDefinition().getDisplayId() + ", ";
-	    			}
-	    			writer.println(s);
-	    		}
-	        	writer.close();
+            	// rows come from the variant stream, no need to materialize
+            	try (CombinatorialCSVWriter writer = new CombinatorialCSVWriter(enumeration, new FileWriter(f))) {
+            		writer.writeAll();
+            	}
             }
         }
+
+		if (derivation.getStrategy() == StrategyType.ENUMERATE && enumeration.size() > SHARD_SIZE) {
+			int sharded = JOptionPane.showConfirmDialog(panel,
+					"There are " + enumeration.size() + " variants.  Would you like to expand them in parallel into "
+							+ "multiple files of " + SHARD_SIZE + " variants each?",
+					"Parallel Expansion", JOptionPane.YES_NO_OPTION);
+			if (sharded == JOptionPane.YES_OPTION) {
+				new ShardExpander(panel, enumeration, file).start();
+				return null;
+			}
+		}
+
 		SBOLDocument generated = new SBOLDocument();
 		generated.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 
 		if (derivation.getStrategy() == StrategyType.SAMPLE) {
-			ComponentDefinition[] a = enumeration.toArray(new ComponentDefinition[0]);
-			ComponentDefinition sample = a[ThreadLocalRandom.current().nextInt(a.length)];
-			ProvenanceUtil.createProvenance(doc, sample, derivation);
-			doc.createRecursiveCopy(generated, sample);
-		} else if (derivation.getStrategy() == StrategyType.ENUMERATE) {
-			ProvenanceUtil.createProvenance(doc, enumeration.iterator().next(), derivation);
-			for (ComponentDefinition CD : enumeration) {
-				doc.createRecursiveCopy(generated, CD);
+			List<CombinatorialEnumeration.Variant> samples = askSamples(panel, enumeration);
+			if (samples == null) {
+				return null;
 			}
+			materialize(doc, derivation, samples, generated);
+		} else if (derivation.getStrategy() == StrategyType.ENUMERATE) {
+			materialize(doc, derivation, enumeration, generated);
 		} else {
 			throw new IllegalArgumentException();
 		}
@@ -108,12 +146,262 @@ public class CombinatorialExpansionUtil {
 		return generated;
 	}
 
-	private static ComponentDefinition createTemplateCopy(SBOLDocument doc, CombinatorialDerivation derivation)
+	/**
+	 * Materializes variants of derivation in doc one at a time and copies them
+	 * into generated. The provenance of the expansion is recorded on the first
+	 * one.
+	 */
+	static void materialize(SBOLDocument doc, CombinatorialDerivation derivation,
+			Iterable<CombinatorialEnumeration.Variant> variants, SBOLDocument generated)
 			throws SBOLValidationException {
+		boolean first = true;
+		for (CombinatorialEnumeration.Variant variant : variants) {
+			ComponentDefinition CD = variant.materialize();
+			if (first) {
+				ProvenanceUtil.createProvenance(doc, CD, derivation);
+				first = false;
+			}
+			doc.createRecursiveCopy(generated, CD);
+		}
+	}
+
+	/**
+	 * Materializes every design of enumeration on pool and writes them to
+	 * shard files named after base (designs.xml becomes designs_shard0.xml,
+	 * designs_shard1.xml, ...), shardSize designs per file. Every shard is
+	 * built in its own SBOLDocument, so workers never share a document. If
+	 * manifest is true, a designs_manifest.csv listing the shard files and the
+	 * design indexes they hold is written too. Returns the shard files in
+	 * index order.
+	 */
+	public static List<File> expandInShards(CombinatorialEnumeration enumeration, File base, long shardSize,
+			boolean manifest, ForkJoinPool pool) throws SBOLValidationException, SBOLConversionException, IOException {
+		return expandInShards(enumeration, base, shardSize, manifest, pool, new AtomicReference<Exception>(),
+				written -> {
+				});
+	}
+
+	/**
+	 * Like expandInShards above, but calls progress with the number of shard
+	 * files written so far after each one. Setting failure stops the shards
+	 * that haven't finished; a RuntimeException set there (e.g. a
+	 * CancellationException) is rethrown.
+	 */
+	private static List<File> expandInShards(CombinatorialEnumeration enumeration, File base, long shardSize,
+			boolean manifest, ForkJoinPool pool, AtomicReference<Exception> failure, IntConsumer progress)
+			throws SBOLValidationException, SBOLConversionException, IOException {
+		String name = FilenameUtils.getBaseName(base.getName());
+		String extension = FilenameUtils.getExtension(base.getName());
+		File directory = base.getAbsoluteFile().getParentFile();
+		String uriPrefix = SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString();
+
+		int count = (int) ((enumeration.size() + shardSize - 1) / shardSize);
+		File[] shards = new File[count];
+		for (int i = 0; i < count; i++) {
+			shards[i] = new File(directory, name + "_shard" + i + (extension.isEmpty() ? ".xml" : "." + extension));
+		}
+
+		pool.invoke(new ShardTask(enumeration, shards, shardSize, uriPrefix, failure, new AtomicInteger(), progress,
+				0, count));
+		Exception e = failure.get();
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		} else if (e instanceof SBOLValidationException) {
+			throw (SBOLValidationException) e;
+		} else if (e instanceof SBOLConversionException) {
+			throw (SBOLConversionException) e;
+		} else if (e instanceof IOException) {
+			throw (IOException) e;
+		}
+
+		if (manifest) {
+			try (PrintWriter writer = new PrintWriter(new File(directory, name + "_manifest.csv"))) {
+				writer.println("file, first, count");
+				for (int i = 0; i < count; i++) {
+					long first = i * shardSize;
+					writer.println(shards[i].getName() + ", " + first + ", "
+							+ Math.min(shardSize, enumeration.size() - first));
+				}
+			}
+		}
+
+		return Arrays.asList(shards);
+	}
+
+	/**
+	 * Asks how many designs to sample, the seed (a random one if left blank)
+	 * and whether to cover every variable part's variants evenly, and draws
+	 * them. Returns null if the user canceled.
+	 */
+	private static List<CombinatorialEnumeration.Variant> askSamples(java.awt.Component panel,
+			CombinatorialEnumeration enumeration) {
+		FormBuilder builder = new FormBuilder();
+		JTextField countField = builder.addTextField("Designs", "1");
+		JTextField seedField = builder.addTextField("Seed", "");
+		JCheckBox stratifiedBox = new JCheckBox("Cover every variable part's variants evenly");
+		builder.add("", stratifiedBox);
+		JPanel form = builder.build();
+		while (true) {
+			int result = JOptionPane.showConfirmDialog(panel, form, "Sample Designs", JOptionPane.OK_CANCEL_OPTION,
+					JOptionPane.PLAIN_MESSAGE);
+			if (result != JOptionPane.OK_OPTION) {
+				return null;
+			}
+			try {
+				int count = Integer.parseInt(countField.getText().trim());
+				String seed = seedField.getText().trim();
+				if (count > 0) {
+					CombinatorialSampler sampler = new CombinatorialSampler(enumeration,
+							seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed));
+					return sampler.sample(count, stratifiedBox.isSelected());
+				}
+			} catch (NumberFormatException e) {
+				// ask again
+			}
+			JOptionPane.showMessageDialog(panel, "Please enter a positive number of designs and a whole number seed");
+		}
+	}
+
+	/**
+	 * Writes the shard files of a large enumeration off the EDT, showing how
+	 * many are done and letting the user cancel. Canceling stops the shards
+	 * after the design each one is working on; files already written are
+	 * kept.
+	 */
+	private static class ShardExpander extends SwingWorker<List<File>, Integer> {
+		private final java.awt.Component panel;
+		private final CombinatorialEnumeration enumeration;
+		private final File file;
+		private final int count;
+		private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		private LoadingDialog loading;
+
+		ShardExpander(java.awt.Component panel, CombinatorialEnumeration enumeration, File file) {
+			this.panel = panel;
+			this.enumeration = enumeration;
+			this.file = file;
+			this.count = (int) ((enumeration.size() + SHARD_SIZE - 1) / SHARD_SIZE);
+		}
+
+		void start() {
+			try {
+				loading = new LoadingDialog(panel, () -> {
+					failure.compareAndSet(null, new CancellationException());
+					cancel(false);
+				});
+				loading.setMessage("Writing " + count + " files");
+				loading.start();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			execute();
+		}
+
+		@Override
+		protected List<File> doInBackground() throws Exception {
+			return expandInShards(enumeration, file, SHARD_SIZE, true, ForkJoinPool.commonPool(), failure,
+					written -> publish(written));
+		}
+
+		@Override
+		protected void process(List<Integer> chunks) {
+			if (loading != null) {
+				loading.setMessage("Written " + chunks.get(chunks.size() - 1) + " of " + count + " files");
+			}
+		}
+
+		@Override
+		protected void done() {
+			if (loading != null) {
+				loading.stop();
+			}
+			if (isCancelled()) {
+				return;
+			}
+
+			try {
+				List<File> shards = get();
+				JOptionPane.showMessageDialog(panel,
+						"The variants were written to " + shards.size() + " files next to " + file.getName());
+			} catch (ExecutionException e) {
+				MessageDialog.showMessage(panel, "There was a problem expanding the combinatorial design: ",
+						e.getCause().getMessage());
+				e.getCause().printStackTrace();
+			} catch (InterruptedException | CancellationException e) {
+				// the user canceled
+			}
+		}
+	}
+
+	/**
+	 * Splits the shards in halves until a single shard is left, which it
+	 * materializes into a private SBOLDocument and writes out. The first
+	 * failure is kept in failure and stops the remaining shards. progress is
+	 * called with the number of files written after each one.
+	 */
+	private static class ShardTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final CombinatorialEnumeration enumeration;
+		private final File[] shards;
+		private final long shardSize;
+		private final String uriPrefix;
+		private final AtomicReference<Exception> failure;
+		private final AtomicInteger written;
+		private final IntConsumer progress;
+		private final int from;
+		private final int to;
+
+		ShardTask(CombinatorialEnumeration enumeration, File[] shards, long shardSize, String uriPrefix,
+				AtomicReference<Exception> failure, AtomicInteger written, IntConsumer progress, int from, int to) {
+			this.enumeration = enumeration;
+			this.shards = shards;
+			this.shardSize = shardSize;
+			this.uriPrefix = uriPrefix;
+			this.failure = failure;
+			this.written = written;
+			this.progress = progress;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ShardTask(enumeration, shards, shardSize, uriPrefix, failure, written, progress, from, mid),
+						new ShardTask(enumeration, shards, shardSize, uriPrefix, failure, written, progress, mid, to));
+				return;
+			}
+
+			SBOLDocument shard = new SBOLDocument();
+			shard.setDefaultURIprefix(uriPrefix);
+			long first = from * shardSize;
+			long last = Math.min(first + shardSize, enumeration.size());
+			try {
+				for (long i = first; i < last && failure.get() == null; i++) {
+					ComponentDefinition CD = enumeration.get(i).materialize(shard);
+					if (i == first) {
+						ProvenanceUtil.createProvenance(shard, CD, enumeration.getDerivation());
+					}
+					SBOLUtils.rebuildSequences(CD, shard);
+				}
+				if (failure.get() == null) {
+					try (FileOutputStream out = new FileOutputStream(shards[from])) {
+						SBOLWriter.write(shard, out);
+					}
+					progress.accept(written.incrementAndGet());
+				}
+			} catch (SBOLValidationException | SBOLConversionException | IOException e) {
+				failure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	static ComponentDefinition createTemplateCopy(SBOLDocument doc, CombinatorialDerivation derivation,
+			String uniqueId) throws SBOLValidationException {
 		ComponentDefinition template = derivation.getTemplate();
 
-		String uniqueId = SBOLUtils.getUniqueDisplayId(null, null, template.getDisplayId() + "_GeneratedInstance",
-				template.getVersion(), "CD", doc);
 		//ComponentDefinition copy = (ComponentDefinition) doc.createCopy(template, uniqueId, template.getVersion());
 		ComponentDefinition copy = doc.createComponentDefinition(uniqueId, template.getVersion(), template.getTypes());
 		copy.setRoles(template.getRoles());
@@ -142,38 +430,20 @@ public class CombinatorialExpansionUtil {
 		return copy;
 	}
 
+	/**
+	 * Materializes every design of derivation in doc.
+	 */
 	private static HashSet<ComponentDefinition> enumerate(SBOLDocument doc, CombinatorialDerivation derivation)
 			throws SBOLValidationException {
-		HashSet<ComponentDefinition> parents = new HashSet<>();
-		parents.add(createTemplateCopy(doc, derivation));
-		for (VariableComponent vc : derivation.getVariableComponents()) {
-			HashSet<ComponentDefinition> newParents = new HashSet<>();
-			for (ComponentDefinition parent : parents) {
-				for (HashSet<ComponentDefinition> children : group(collectVariants(doc, vc), vc.getOperator())) {
-					
-					// create copy of parent
-					String uniqueId = SBOLUtils.getUniqueDisplayId(null, null, parent.getDisplayId(),
-							parent.getVersion(), "CD", doc);
-					ComponentDefinition newParent = (ComponentDefinition) doc.createCopy(parent, uniqueId, "1");
-
-					// add children
-					ComponentDefinition template = derivation.getTemplate();
-					addChildren(template, template.getComponent(vc.getVariableURI()), newParent, children);
-
-					// add to newParents
-					newParents.add(newParent);
-				}
-			}
-
-			parents = newParents;
+		HashSet<ComponentDefinition> designs = new HashSet<>();
+		for (CombinatorialEnumeration.Variant variant : new CombinatorialEnumeration(doc, derivation)) {
+			designs.add(variant.materialize());
 		}
-
-		return parents;
+		return designs;
 	}
-	
 
-	private static void addChildren(ComponentDefinition originalTemplate, Component originalComponent,
-			ComponentDefinition newParent, HashSet<ComponentDefinition> children) throws SBOLValidationException {
+	static void addChildren(ComponentDefinition originalTemplate, Component originalComponent,
+			ComponentDefinition newParent, Set<ComponentDefinition> children) throws SBOLValidationException {
 		Component newComponent = newParent.getComponent(originalComponent.getDisplayId());
 		newComponent.addWasDerivedFrom(originalComponent.getIdentity());
 
@@ -276,60 +546,7 @@ public class CombinatorialExpansionUtil {
 		return null;
 	}
 
-	private static HashSet<HashSet<ComponentDefinition>> group(HashSet<ComponentDefinition> variants,
-			OperatorType operator) {
-		HashSet<HashSet<ComponentDefinition>> groups = new HashSet<>();
-
-		for (ComponentDefinition CD : variants) {
-			HashSet<ComponentDefinition> group = new HashSet<>();
-			group.add(CD);
-			groups.add(group);
-		}
-
-		if (operator == OperatorType.ONE) {
-			return groups;
-		}
-
-		if (operator == OperatorType.ZEROORONE) {
-			groups.add(new HashSet<>());
-			return groups;
-		}
-
-		groups.clear();
-		generateCombinations(groups, variants.toArray(new ComponentDefinition[0]), 0, new HashSet<>());
-		if (operator == OperatorType.ONEORMORE) {
-			return groups;
-		}
-
-		if (operator == OperatorType.ZEROORMORE) {
-			groups.add(new HashSet<>());
-			return groups;
-		}
-
-		throw new IllegalArgumentException(operator.toString() + " operator not supported");
-	}
-
-	/**
-	 * Generates all combinations except the empty set.
-	 */
-	private static void generateCombinations(HashSet<HashSet<ComponentDefinition>> groups,
-			ComponentDefinition[] variants, int i, HashSet<ComponentDefinition> set) {
-		if (i == variants.length) {
-			if (!set.isEmpty()) {
-				groups.add(set);
-			}
-			return;
-		}
-
-		HashSet<ComponentDefinition> no = new HashSet<>(set);
-		generateCombinations(groups, variants, i + 1, no);
-
-		HashSet<ComponentDefinition> yes = new HashSet<>(set);
-		yes.add(variants[i]);
-		generateCombinations(groups, variants, i + 1, yes);
-	}
-
-	private static HashSet<ComponentDefinition> collectVariants(SBOLDocument doc, VariableComponent vc)
+	static HashSet<ComponentDefinition> collectVariants(SBOLDocument doc, VariableComponent vc)
 			throws SBOLValidationException {
 		HashSet<ComponentDefinition> variants = new HashSet<>();
 
@@ -0,0 +1,113 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Draws designs from a CombinatorialEnumeration by index, so only the sampled
+ * designs are ever decoded. The same seed always gives the same samples.
+ */
+public class CombinatorialSampler {
+	private final CombinatorialEnumeration enumeration;
+	private final SplittableRandom random;
+
+	public CombinatorialSampler(CombinatorialEnumeration enumeration, long seed) {
+		this.enumeration = enumeration;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Returns count designs, drawn with sampleStratified if stratified is true
+	 * and with sample otherwise.
+	 */
+	public List<CombinatorialEnumeration.Variant> sample(int count, boolean stratified) {
+		return stratified ? sampleStratified(count) : sample(count);
+	}
+
+	/**
+	 * Returns count distinct designs drawn uniformly, in index order. Returns
+	 * every design if there are no more than count, and none if count isn't
+	 * positive.
+	 */
+	public List<CombinatorialEnumeration.Variant> sample(int count) {
+		long size = enumeration.size();
+		List<CombinatorialEnumeration.Variant> samples = new ArrayList<CombinatorialEnumeration.Variant>();
+		if (count <= 0) {
+			return samples;
+		}
+		if (count >= size) {
+			for (CombinatorialEnumeration.Variant variant : enumeration) {
+				samples.add(variant);
+			}
+			return samples;
+		}
+
+		// Floyd's algorithm: count draws, no matter how large size is
+		TreeSet<Long> indices = new TreeSet<Long>();
+		for (long j = size - count; j < size; j++) {
+			long index = random.nextLong(j + 1);
+			if (!indices.add(index)) {
+				indices.add(j);
+			}
+		}
+		for (long index : indices) {
+			samples.add(enumeration.get(index));
+		}
+		return samples;
+	}
+
+	/**
+	 * Returns count designs so that every VariableComponent's groups are
+	 * covered evenly: the groups of each slot are split into count equal
+	 * strata, one group is drawn from each and the draws of the slots are
+	 * paired up at random (Latin hypercube sampling). A slot with fewer groups
+	 * than count has every group drawn about equally often, so designs may
+	 * repeat if the space is small. Returns none if count isn't positive.
+	 */
+	public List<CombinatorialEnumeration.Variant> sampleStratified(int count) {
+		if (count <= 0) {
+			return new ArrayList<CombinatorialEnumeration.Variant>();
+		}
+		int slotCount = enumeration.getSlotCount();
+		long[][] columns = new long[slotCount][];
+		for (int slot = 0; slot < slotCount; slot++) {
+			long groups = enumeration.getGroupCount(slot);
+			long[] column = new long[count];
+			for (int j = 0; j < count; j++) {
+				long from = stratumStart(groups, count, j);
+				long to = stratumStart(groups, count, j + 1);
+				column[j] = to > from ? from + random.nextLong(to - from) : from;
+			}
+			shuffle(column);
+			columns[slot] = column;
+		}
+
+		List<CombinatorialEnumeration.Variant> samples = new ArrayList<CombinatorialEnumeration.Variant>();
+		for (int j = 0; j < count; j++) {
+			long[] tuple = new long[slotCount];
+			for (int slot = 0; slot < slotCount; slot++) {
+				tuple[slot] = columns[slot][j];
+			}
+			samples.add(enumeration.get(tuple));
+		}
+		return samples;
+	}
+
+	/**
+	 * floor(j * groups / count) without overflowing.
+	 */
+	private static long stratumStart(long groups, int count, int j) {
+		return (groups / count) * j + (groups % count) * j / count;
+	}
+
+	private void shuffle(long[] values) {
+		for (int i = values.length - 1; i > 0; i--) {
+			int k = random.nextInt(i + 1);
+			long value = values[i];
+			values[i] = values[k];
+			values[k] = value;
+		}
+	}
+}
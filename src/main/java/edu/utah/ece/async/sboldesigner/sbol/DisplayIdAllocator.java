@@ -0,0 +1,99 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Index behind SBOLUtils.getUniqueDisplayId. For every owner (an SBOLDocument,
+ * ComponentDefinition or CombinatorialDerivation), namespace and prefix it
+ * remembers the next suffix that might be free and the suffixes that were
+ * released, so allocating displayId42 doesn't probe displayId1..displayId41
+ * again. Candidates are still checked against the owner, so objects created or
+ * removed without going through the allocator can't cause a clash.
+ *
+ * Owners are held weakly and compared by identity. Each owner has its own
+ * lock, so allocating in different documents (e.g. the shards of a
+ * combinatorial expansion) doesn't serialize.
+ */
+class DisplayIdAllocator {
+	private DisplayIdAllocator() {
+	}
+
+	private static final Map<Object, Map<String, Suffixes>> SUFFIXES = new MapMaker().weakKeys().makeMap();
+
+	private static class Suffixes {
+		int next;
+		final TreeSet<Integer> released = new TreeSet<Integer>();
+
+		Suffixes(int firstSuffix) {
+			next = firstSuffix;
+		}
+	}
+
+	/**
+	 * The suffixes of owner, which also serve as the lock for owner.
+	 */
+	private static Map<String, Suffixes> prefixes(Object owner) {
+		return SUFFIXES.computeIfAbsent(owner, k -> new HashMap<String, Suffixes>());
+	}
+
+	/**
+	 * Returns prefix if it isn't taken, otherwise prefix followed by the lowest
+	 * suffix (starting at firstSuffix) the index doesn't know to be taken.
+	 */
+	static String allocate(Object owner, String namespace, String prefix, int firstSuffix,
+			Predicate<String> taken) {
+		Map<String, Suffixes> prefixes = prefixes(owner);
+		synchronized (prefixes) {
+			if (!taken.test(prefix)) {
+				return prefix;
+			}
+
+			Suffixes suffixes = prefixes.computeIfAbsent(namespace + '\u0000' + prefix,
+					k -> new Suffixes(firstSuffix));
+
+			// reuse released suffixes first so ids stay compact
+			while (!suffixes.released.isEmpty()) {
+				int suffix = suffixes.released.pollFirst();
+				if (suffix < suffixes.next && !taken.test(prefix + suffix)) {
+					return prefix + suffix;
+				}
+			}
+
+			while (taken.test(prefix + suffixes.next)) {
+				suffixes.next++;
+			}
+			return prefix + suffixes.next++;
+		}
+	}
+
+	/**
+	 * Tells the index that displayId, which was allocated from prefix, is no
+	 * longer used by owner.
+	 */
+	static void release(Object owner, String namespace, String prefix, String displayId) {
+		Map<String, Suffixes> prefixes = SUFFIXES.get(owner);
+		if (prefixes == null || displayId == null || !displayId.startsWith(prefix)) {
+			return;
+		}
+		String suffix = displayId.substring(prefix.length());
+		if (suffix.isEmpty() || suffix.length() > 9) {
+			return;
+		}
+		for (int i = 0; i < suffix.length(); i++) {
+			if (!Character.isDigit(suffix.charAt(i))) {
+				return;
+			}
+		}
+		synchronized (prefixes) {
+			Suffixes suffixes = prefixes.get(namespace + '\u0000' + prefix);
+			if (suffixes != null) {
+				suffixes.released.add(Integer.parseInt(suffix));
+			}
+		}
+	}
+}
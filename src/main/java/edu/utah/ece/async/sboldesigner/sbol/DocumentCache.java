@@ -0,0 +1,156 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
+
+/**
+ * Parsed SBOLDocuments of part libraries, so browsing a library doesn't parse
+ * it again every time a filter changes. Files are keyed by path and
+ * revalidated by their modification time and size; resources never change.
+ *
+ * Documents are evicted least recently used first once the files they were
+ * read from add up to more than the budget. The cached documents are shared,
+ * so callers must copy what they want to change (RegistryInputDialog returns
+ * recursive copies of the selection).
+ */
+public class DocumentCache {
+	private DocumentCache() {
+	}
+
+	/**
+	 * Budget in bytes of source files. A parsed document takes several times
+	 * the size of its file, so this is kept well under the heap size.
+	 */
+	private static final long BUDGET = Runtime.getRuntime().maxMemory() / 16;
+
+	private static class Entry {
+		final SBOLDocument doc;
+		final long lastModified;
+		final long size;
+		PartIndex index;
+
+		Entry(SBOLDocument doc, long lastModified, long size) {
+			this.doc = doc;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+	}
+
+	private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private static long totalSize = 0;
+
+	/**
+	 * Returns the parsed file, reading it only if it isn't cached or changed
+	 * on disk since.
+	 */
+	public static synchronized SBOLDocument read(File file)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		String key = key(file.getCanonicalPath());
+		long lastModified = file.lastModified();
+		long size = file.length();
+
+		Entry entry = ENTRIES.get(key);
+		if (entry != null && entry.lastModified == lastModified && entry.size == size) {
+			return entry.doc;
+		}
+
+		setupReader();
+		SBOLDocument doc = SBOLReader.read(file);
+		put(key, new Entry(doc, lastModified, size));
+		return doc;
+	}
+
+	/**
+	 * Returns the parsed classpath resource, e.g. "/BuiltInParts.xml".
+	 */
+	public static synchronized SBOLDocument readResource(String name)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		String key = key("resource:" + name);
+		Entry entry = ENTRIES.get(key);
+		if (entry != null) {
+			return entry.doc;
+		}
+
+		setupReader();
+		SBOLDocument doc;
+		try (InputStream in = DocumentCache.class.getResourceAsStream(name)) {
+			if (in == null) {
+				throw new IOException(name + " not found");
+			}
+			doc = SBOLReader.read(in);
+		}
+		// resources are small and used all the time, so they don't count
+		// against the budget
+		put(key, new Entry(doc, 0, 0));
+		return doc;
+	}
+
+	/**
+	 * Returns the PartIndex of a document returned by this cache, building it
+	 * the first time, or null if doc isn't cached (anymore).
+	 */
+	public static synchronized PartIndex index(SBOLDocument doc) {
+		for (Entry entry : ENTRIES.values()) {
+			if (entry.doc == doc) {
+				if (entry.index == null) {
+					entry.index = new PartIndex(doc);
+				}
+				return entry.index;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Forgets all the cached documents.
+	 */
+	public static synchronized void clear() {
+		ENTRIES.clear();
+		totalSize = 0;
+	}
+
+	/**
+	 * Documents are parsed relative to the user's URI prefix.
+	 */
+	private static String key(String location) {
+		return SBOLEditorPreferences.INSTANCE.getUserInfo().getURI() + " " + location;
+	}
+
+	private static void setupReader() {
+		SBOLReader.setURIPrefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
+		SBOLReader.setCompliant(true);
+	}
+
+	private static void put(String key, Entry entry) {
+		Entry old = ENTRIES.remove(key);
+		if (old != null) {
+			totalSize -= old.size;
+		}
+		if (entry.size > BUDGET) {
+			return;
+		}
+
+		ENTRIES.put(key, entry);
+		totalSize += entry.size;
+		Iterator<Map.Entry<String, Entry>> eldest = ENTRIES.entrySet().iterator();
+		while (totalSize > BUDGET && eldest.hasNext()) {
+			Entry evicted = eldest.next().getValue();
+			if (evicted == entry) {
+				break;
+			}
+			totalSize -= evicted.size;
+			eldest.remove();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OrientationType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.Sequence;
+import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.SequenceConstraint;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Engine behind SBOLUtils.rebuildSequences. The implied sequence of every
+ * composite part is assembled as a SequenceRope of its children's sequences
+ * (reverse complemented where their annotation says so), and the rope is
+ * remembered together with what it was assembled from. Rebuilding a part whose
+ * children, order and orientations haven't changed returns the remembered
+ * rope without touching its annotations or sequence, so after swapping one
+ * part only the parts above it are assembled again, and those share the ropes
+ * of their unchanged children.
+ *
+ * Parts are held weakly and compared by identity.
+ */
+class ImpliedSequences {
+	private ImpliedSequences() {
+	}
+
+	private static final Map<ComponentDefinition, Assembly> ASSEMBLIES = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * What a part's sequence was assembled from and into.
+	 */
+	private static class Assembly {
+		/**
+		 * The sequence of every component's definition, by component.
+		 */
+		final Map<URI, CharSequence> contents;
+		final Map<URI, OrientationType> orientations;
+		final Set<List<Object>> constraints;
+		final SequenceRope rope;
+		/**
+		 * The elements of the Sequence the rope was written to.
+		 */
+		final String elements;
+
+		Assembly(Map<URI, CharSequence> contents, Map<URI, OrientationType> orientations,
+				Set<List<Object>> constraints, SequenceRope rope, String elements) {
+			this.contents = contents;
+			this.orientations = orientations;
+			this.constraints = constraints;
+			this.rope = rope;
+			this.elements = elements;
+		}
+
+		boolean isCurrent(ComponentDefinition comp, Map<URI, CharSequence> contents,
+				Map<URI, OrientationType> orientations, Set<List<Object>> constraints) {
+			if (!this.contents.keySet().equals(contents.keySet()) || !this.orientations.equals(orientations)
+					|| !this.constraints.equals(constraints)) {
+				return false;
+			}
+			for (Map.Entry<URI, CharSequence> content : contents.entrySet()) {
+				// the same child sequence object means nothing was edited
+				if (this.contents.get(content.getKey()) != content.getValue()) {
+					return false;
+				}
+			}
+			// the annotations and the sequence have to be the ones written
+			if (comp.getSequenceAnnotations().size() != contents.size() || comp.getSequences().size() != 1) {
+				return false;
+			}
+			return comp.getSequences().iterator().next().getElements() == elements;
+		}
+	}
+
+	/**
+	 * Rebuilds the SequenceAnnotations and the implied Sequence of comp (and of
+	 * its composite children) from the Sequences of its sorted Components.
+	 * Returns the implied sequence, or null if none of the components has a
+	 * sequence.
+	 */
+	static SequenceRope rebuild(ComponentDefinition comp, SBOLDocument doc) throws SBOLValidationException {
+		Map<URI, OrientationType> orientations = new HashMap<URI, OrientationType>();
+		for (SequenceAnnotation sa : comp.getSequenceAnnotations()) {
+			if (sa.isSetComponent() && !sa.getLocations().isEmpty()) {
+				orientations.put(sa.getComponentURI(), sa.getLocations().iterator().next().getOrientation());
+			}
+		}
+
+		Set<List<Object>> constraints = new HashSet<List<Object>>();
+		for (SequenceConstraint sc : comp.getSequenceConstraints()) {
+			constraints.add(Arrays.asList(sc.getRestriction(), sc.getSubjectURI(), sc.getObjectURI()));
+		}
+
+		// children first, they don't depend on the order
+		Map<URI, CharSequence> contents = new HashMap<URI, CharSequence>();
+		for (Component c : comp.getComponents()) {
+			contents.put(c.getIdentity(), content(c.getDefinition(), doc));
+		}
+
+		Assembly assembly = ASSEMBLIES.get(comp);
+		if (assembly != null && assembly.isCurrent(comp, contents, orientations, constraints)) {
+			return assembly.rope.length() == 0 ? null : assembly.rope;
+		}
+
+		// without annotations the components are sorted by their constraints
+		comp.clearSequenceAnnotations();
+		List<CharSequence> pieces = new ArrayList<CharSequence>();
+		Map<URI, OrientationType> written = new HashMap<URI, OrientationType>();
+		int start = 1;
+		int count = 0;
+		for (Component c : comp.getSortedComponents()) {
+			CharSequence content = contents.get(c.getIdentity());
+			OrientationType o = orientations.getOrDefault(c.getIdentity(), OrientationType.INLINE);
+			written.put(c.getIdentity(), o);
+
+			SequenceAnnotation seqAnn;
+			int length = content.length();
+			if (length == 0) {
+				seqAnn = comp.createSequenceAnnotation("SequenceAnnotation_" + count, "GenericLocation", o);
+			} else {
+				seqAnn = comp.createSequenceAnnotation("SequenceAnnotation_" + count, "Range", start,
+						start + length - 1, o);
+				start += length;
+				pieces.add(o == OrientationType.REVERSECOMPLEMENT ? CharSequenceUtil.reverseComplement(content)
+						: content);
+			}
+			seqAnn.setComponent(c.getIdentity());
+
+			count++;
+		}
+
+		SequenceRope rope = SequenceRope.of(pieces);
+		String elements = null;
+		if (rope.length() > 0) {
+			elements = rope.toString();
+			if (comp.getSequences().isEmpty()) {
+				String uniqueId = SBOLUtils.getUniqueDisplayId(null, null, comp.getDisplayId() + "Sequence",
+						comp.getVersion(), "Sequence", doc);
+				comp.addSequence(doc.createSequence(uniqueId, comp.getVersion(), elements, Sequence.IUPAC_DNA));
+			} else {
+				comp.getSequences().iterator().next().setElements(elements);
+			}
+			// setElements may keep a copy
+			elements = comp.getSequences().iterator().next().getElements();
+		}
+		ASSEMBLIES.put(comp, new Assembly(contents, written, constraints, rope, elements));
+		return rope.length() == 0 ? null : rope;
+	}
+
+	/**
+	 * Returns the sequence of CD, rebuilding it first if it's composite.
+	 */
+	private static CharSequence content(ComponentDefinition CD, SBOLDocument doc) throws SBOLValidationException {
+		if (CD == null) {
+			return "";
+		}
+		if (!CD.getComponents().isEmpty()) {
+			SequenceRope rope = rebuild(CD, doc);
+			if (rope != null) {
+				return rope;
+			}
+		}
+		Set<Sequence> sequences = CD.getSequences();
+		if (sequences.size() == 1) {
+			return sequences.iterator().next().getElements();
+		}
+		List<CharSequence> pieces = new ArrayList<CharSequence>();
+		for (Sequence s : sequences) {
+			pieces.add(s.getElements());
+		}
+		return SequenceRope.of(pieces);
+	}
+}
@@ -0,0 +1,189 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sbolstandard.core2.Collection;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.TopLevel;
+
+/**
+ * Inverted index over the ComponentDefinitions of a part library. Every CD
+ * gets a number (in the order of identities) and every role, type and
+ * collection a sorted list of the numbers of its CDs, so filtering is an
+ * intersection of posting lists instead of a scan over the library.
+ *
+ * A role matches its descendants too. The posting list of a role and its
+ * descendants is merged the first time the role is queried and kept.
+ *
+ * The index doesn't follow changes to the document, so it's only built for
+ * documents that don't change (see DocumentCache).
+ */
+public class PartIndex {
+	private static final int[] NONE = new int[0];
+
+	private final ComponentDefinition[] CDs;
+	private final Map<URI, int[]> byRole;
+	private final Map<URI, int[]> byType;
+	private final Map<URI, int[]> byCollection;
+	private final Map<URI, int[]> byRoleOrDescendant = new ConcurrentHashMap<URI, int[]>();
+
+	public PartIndex(SBOLDocument doc) {
+		CDs = doc.getComponentDefinitions().toArray(new ComponentDefinition[0]);
+		Arrays.sort(CDs, Comparator.comparing(ComponentDefinition::getIdentity));
+
+		Map<URI, List<Integer>> roles = new HashMap<URI, List<Integer>>();
+		Map<URI, List<Integer>> types = new HashMap<URI, List<Integer>>();
+		Map<URI, Integer> numbers = new HashMap<URI, Integer>();
+		for (int i = 0; i < CDs.length; i++) {
+			numbers.put(CDs[i].getIdentity(), i);
+			for (URI role : CDs[i].getRoles()) {
+				roles.computeIfAbsent(role, k -> new ArrayList<Integer>()).add(i);
+			}
+			for (URI type : CDs[i].getTypes()) {
+				types.computeIfAbsent(type, k -> new ArrayList<Integer>()).add(i);
+			}
+		}
+
+		Map<URI, List<Integer>> collections = new HashMap<URI, List<Integer>>();
+		for (Collection collection : doc.getCollections()) {
+			List<Integer> members = new ArrayList<Integer>();
+			for (TopLevel member : collection.getMembers()) {
+				Integer number = numbers.get(member.getIdentity());
+				if (number != null) {
+					members.add(number);
+				}
+			}
+			collections.put(collection.getIdentity(), members);
+		}
+
+		byRole = toPostings(roles);
+		byType = toPostings(types);
+		byCollection = toPostings(collections);
+	}
+
+	private static Map<URI, int[]> toPostings(Map<URI, List<Integer>> lists) {
+		Map<URI, int[]> postings = new HashMap<URI, int[]>();
+		for (Map.Entry<URI, List<Integer>> entry : lists.entrySet()) {
+			int[] posting = new int[entry.getValue().size()];
+			for (int i = 0; i < posting.length; i++) {
+				posting[i] = entry.getValue().get(i);
+			}
+			Arrays.sort(posting);
+			postings.put(entry.getKey(), distinct(posting, posting.length));
+		}
+		return postings;
+	}
+
+	/**
+	 * Returns the CDs with role or one of its descendants, type and
+	 * membership in collection, in the order of their identities. Criteria
+	 * that are null aren't checked.
+	 */
+	public List<ComponentDefinition> query(URI role, URI type, URI collection) {
+		int[] result = null;
+		if (role != null) {
+			result = postingOfRole(role);
+		}
+		if (type != null) {
+			result = intersect(result, byType.getOrDefault(type, NONE));
+		}
+		if (collection != null) {
+			result = intersect(result, byCollection.getOrDefault(collection, NONE));
+		}
+		if (result == null) {
+			return Arrays.asList(CDs);
+		}
+
+		final int[] numbers = result;
+		return new AbstractList<ComponentDefinition>() {
+			@Override
+			public ComponentDefinition get(int index) {
+				return CDs[numbers[index]];
+			}
+
+			@Override
+			public int size() {
+				return numbers.length;
+			}
+		};
+	}
+
+	public int size() {
+		return CDs.length;
+	}
+
+	private int[] postingOfRole(URI role) {
+		return byRoleOrDescendant.computeIfAbsent(role, k -> {
+			List<int[]> postings = new ArrayList<int[]>();
+			int total = 0;
+			for (URI candidate : SequenceOntologyIndex.INSTANCE.getDescendantURIsOf(k)) {
+				int[] posting = byRole.get(candidate);
+				if (posting != null) {
+					postings.add(posting);
+					total += posting.length;
+				}
+			}
+			int[] own = byRole.get(k);
+			if (own != null) {
+				postings.add(own);
+				total += own.length;
+			}
+
+			int[] union = new int[total];
+			int n = 0;
+			for (int[] posting : postings) {
+				System.arraycopy(posting, 0, union, n, posting.length);
+				n += posting.length;
+			}
+			Arrays.sort(union);
+			return distinct(union, n);
+		});
+	}
+
+	/**
+	 * Intersects two sorted posting lists, a being null meaning everything.
+	 */
+	private static int[] intersect(int[] a, int[] b) {
+		if (a == null) {
+			return b;
+		}
+		int[] result = new int[Math.min(a.length, b.length)];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Drops repeated numbers from the first length numbers of sorted.
+	 */
+	private static int[] distinct(int[] sorted, int length) {
+		int n = 0;
+		for (int i = 0; i < length; i++) {
+			if (n == 0 || sorted[n - 1] != sorted[i]) {
+				sorted[n++] = sorted[i];
+			}
+		}
+		return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+	}
+}
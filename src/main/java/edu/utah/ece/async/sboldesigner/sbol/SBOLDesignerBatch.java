@@ -0,0 +1,431 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FilenameUtils;
+import org.sbolstandard.core2.AccessType;
+import org.sbolstandard.core2.CombinatorialDerivation;
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.RestrictionType;
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLWriter;
+import org.sbolstandard.core2.SequenceConstraint;
+import org.sbolstandard.core2.StrategyType;
+
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
+
+/**
+ * Runs SBOLDesigner's document operations on many files without a GUI, e.g.
+ *
+ * <pre>
+ * java -cp SBOLDesigner.jar edu.utah.ece.async.sboldesigner.sbol.SBOLDesignerBatch -expand -scars -f genbank -o out designs/
+ * </pre>
+ *
+ * Every input file (SBOL, GenBank or FASTA) is read, optionally expanded,
+ * given scars and rebuilt sequences, and written to the output directory in
+ * the chosen format. The files are processed in parallel, each in its own
+ * SBOLDocument. Nothing here touches AWT, so it runs on headless machines.
+ */
+public class SBOLDesignerBatch {
+
+	private static final URI SCAR_ROLE = URI.create("http://identifiers.org/so/SO:0001953");
+	private static final URI CIRCULAR_ROLE = URI.create("http://identifiers.org/so/SO:0000755");
+
+	private static final List<String> INPUT_EXTENSIONS = Arrays.asList("xml", "rdf", "sbol", "nt", "ttl", "json",
+			"gb", "gbk", "genbank", "fasta", "fa", "fas", "fna");
+
+	/**
+	 * SBOLReader keeps its settings (and the GenBank and FASTA converters some
+	 * of their state) in static fields, so reading and writing other than SBOL
+	 * is done one file at a time. Everything between runs in parallel.
+	 */
+	private static final Object IO_LOCK = new Object();
+
+	public enum Format {
+		SBOL(SBOLDocument.RDF, "xml"), SBOL1(SBOLDocument.RDFV1, "rdf"), GENBANK(SBOLDocument.GENBANK,
+				"gb"), FASTA(SBOLDocument.FASTAformat, "fasta");
+
+		private final String fileType;
+		private final String extension;
+
+		Format(String fileType, String extension) {
+			this.fileType = fileType;
+			this.extension = extension;
+		}
+	}
+
+	private boolean expand = false;
+	private int samples = 10;
+	private long seed = System.nanoTime();
+	private boolean stratified = false;
+	private boolean addScars = false;
+	private boolean rebuildSequences = false;
+	private Format format = Format.SBOL;
+	private String uriPrefix = null;
+
+	/**
+	 * Replaces every document with a combinatorial derivation by the designs
+	 * it derives: all of them if its strategy is enumerate or unset, samples
+	 * random ones if it's sample. If stratified is true the samples cover the
+	 * variants of every VariableComponent evenly (see
+	 * CombinatorialSampler.sampleStratified).
+	 */
+	public void setExpand(boolean expand, int samples, long seed, boolean stratified) {
+		this.expand = expand;
+		this.samples = samples;
+		this.seed = seed;
+		this.stratified = stratified;
+	}
+
+	/**
+	 * Adds a scar between every two non-scar parts of the root designs.
+	 */
+	public void setAddScars(boolean addScars) {
+		this.addScars = addScars;
+	}
+
+	/**
+	 * Rebuilds the sequence annotations and implied sequences of the root
+	 * designs from their parts.
+	 */
+	public void setRebuildSequences(boolean rebuildSequences) {
+		this.rebuildSequences = rebuildSequences;
+	}
+
+	public void setFormat(Format format) {
+		this.format = format;
+	}
+
+	/**
+	 * The URI prefix of the objects read and created, the user's from the
+	 * preferences if null.
+	 */
+	public void setURIPrefix(String uriPrefix) {
+		this.uriPrefix = uriPrefix;
+	}
+
+	private String getURIPrefix() {
+		return uriPrefix != null ? uriPrefix : SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString();
+	}
+
+	public SBOLDocument read(File file) throws SBOLValidationException, IOException, SBOLConversionException {
+		synchronized (IO_LOCK) {
+			SBOLReader.setURIPrefix(getURIPrefix());
+			SBOLReader.setCompliant(true);
+			return SBOLReader.read(file);
+		}
+	}
+
+	public void write(SBOLDocument doc, File file) throws IOException, SBOLConversionException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			if (format == Format.SBOL) {
+				SBOLWriter.write(doc, out, format.fileType);
+			} else {
+				synchronized (IO_LOCK) {
+					SBOLWriter.write(doc, out, format.fileType);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the operations to doc. Returns the document to write, which is a
+	 * new one if doc was expanded.
+	 */
+	public SBOLDocument process(SBOLDocument doc) throws SBOLValidationException {
+		if (expand && !doc.getCombinatorialDerivations().isEmpty()) {
+			doc = expand(doc);
+		}
+
+		for (ComponentDefinition CD : new ArrayList<ComponentDefinition>(doc.getRootComponentDefinitions())) {
+			if (CD.getComponents().isEmpty()) {
+				continue;
+			}
+			// scars change the order, which the annotations have to follow
+			boolean changed = addScars && addScars(CD, doc);
+			if (rebuildSequences || changed) {
+				SBOLUtils.rebuildSequences(CD, doc);
+			}
+		}
+		return doc;
+	}
+
+	/**
+	 * The file in is written to: its name in outputDirectory, with the
+	 * extension of the format.
+	 */
+	public File getOutputFile(File in, File outputDirectory) {
+		return new File(outputDirectory, FilenameUtils.getBaseName(in.getName()) + "." + format.extension);
+	}
+
+	/**
+	 * Reads in, processes it and writes it to its output file in
+	 * outputDirectory. Returns the file written.
+	 */
+	public File process(File in, File outputDirectory)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		SBOLDocument doc = process(read(in));
+		File out = getOutputFile(in, outputDirectory);
+		write(doc, out);
+		return out;
+	}
+
+	/**
+	 * Processes files on threads threads. Returns the exception each file
+	 * failed with, or null for the files written. A file whose output file
+	 * is the same as an earlier file's (e.g. foo.xml and foo.gb, or foo.xml
+	 * in two directories) isn't processed and fails instead of overwriting
+	 * it.
+	 */
+	public Map<File, Exception> processAll(List<File> files, File outputDirectory, int threads)
+			throws InterruptedException {
+		outputDirectory.mkdirs();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Map<File, File> outputs = new HashMap<File, File>();
+		Map<File, Future<File>> futures = new HashMap<File, Future<File>>();
+		Map<File, Exception> results = new LinkedHashMap<File, Exception>();
+		try {
+			for (File file : files) {
+				File out = getOutputFile(file, outputDirectory).getAbsoluteFile();
+				File other = outputs.putIfAbsent(out, file);
+				if (other != null) {
+					results.put(file, new IOException(out + " is already the output of " + other));
+				} else {
+					results.put(file, null);
+					futures.put(file, pool.submit(() -> process(file, outputDirectory)));
+				}
+			}
+
+			for (Map.Entry<File, Future<File>> future : futures.entrySet()) {
+				try {
+					future.getValue().get();
+				} catch (ExecutionException e) {
+					results.put(future.getKey(),
+							e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Materializes the designs of every derivation in doc into a new document,
+	 * like CombinatorialExpansionUtil.createCombinatorialDesign without asking.
+	 */
+	private SBOLDocument expand(SBOLDocument doc) throws SBOLValidationException {
+		SBOLDocument generated = new SBOLDocument();
+		generated.setDefaultURIprefix(getURIPrefix());
+
+		for (CombinatorialDerivation derivation : new ArrayList<CombinatorialDerivation>(
+				doc.getCombinatorialDerivations())) {
+			CombinatorialEnumeration enumeration = new CombinatorialEnumeration(doc, derivation);
+			Iterable<CombinatorialEnumeration.Variant> variants;
+			if (derivation.isSetStrategy() && derivation.getStrategy() == StrategyType.SAMPLE) {
+				variants = new CombinatorialSampler(enumeration, seed).sample(samples, stratified);
+			} else {
+				variants = enumeration;
+			}
+			CombinatorialExpansionUtil.materialize(doc, derivation, variants, generated);
+		}
+		return generated;
+	}
+
+	/**
+	 * Adds a scar between every two non-scar components of CD and orders them
+	 * with precedes constraints, like SBOLDesign.addScars does on the canvas.
+	 * As on the canvas, a circular backbone goes first and gets no scars next
+	 * to it. Returns whether any scar was added.
+	 */
+	private static boolean addScars(ComponentDefinition CD, SBOLDocument doc) throws SBOLValidationException {
+		List<Component> components = new ArrayList<Component>(CD.getSortedComponents());
+		int start = 0;
+		for (int i = 0; i < components.size(); i++) {
+			if (hasRole(components.get(i), CIRCULAR_ROLE)) {
+				components.add(0, components.remove(i));
+				start = 1;
+				break;
+			}
+		}
+		boolean added = false;
+		for (int i = start; i < components.size() - 1; i++) {
+			if (isScar(components.get(i)) || isScar(components.get(i + 1))) {
+				continue;
+			}
+			String scarId = SBOLUtils.getUniqueDisplayId(null, null, "Scar", "1", "CD", doc);
+			ComponentDefinition scar = doc.createComponentDefinition(scarId, "1", ComponentDefinition.DNA);
+			scar.addRole(SCAR_ROLE);
+			String componentId = SBOLUtils.getUniqueDisplayId(CD, null, scar.getDisplayId() + "_Component", "1",
+					"Component", doc);
+			components.add(i + 1, CD.createComponent(componentId, AccessType.PUBLIC, scar.getIdentity()));
+			added = true;
+			i++;
+		}
+		if (!added) {
+			return false;
+		}
+
+		for (SequenceConstraint sc : new ArrayList<SequenceConstraint>(CD.getSequenceConstraints())) {
+			if (RestrictionType.PRECEDES.equals(sc.getRestriction())) {
+				CD.removeSequenceConstraint(sc);
+				SBOLUtils.releaseDisplayId(CD, CD.getDisplayId() + "_SequenceConstraint", sc.getDisplayId(),
+						"SequenceConstraint");
+			}
+		}
+		for (int i = 0; i < components.size() - 1; i++) {
+			String uniqueId = SBOLUtils.getUniqueDisplayId(CD, null, CD.getDisplayId() + "_SequenceConstraint", null,
+					"SequenceConstraint", doc);
+			CD.createSequenceConstraint(uniqueId, RestrictionType.PRECEDES, components.get(i).getIdentity(),
+					components.get(i + 1).getIdentity());
+		}
+		return true;
+	}
+
+	private static boolean isScar(Component component) {
+		return hasRole(component, SCAR_ROLE);
+	}
+
+	private static boolean hasRole(Component component, URI role) {
+		ComponentDefinition definition = component.getDefinition();
+		return definition != null && definition.getRoles().contains(role);
+	}
+
+	/**
+	 * Returns the files to process: the given files, and the SBOL, GenBank and
+	 * FASTA files in the given directories.
+	 */
+	private static List<File> collectInputs(List<String> paths) {
+		List<File> files = new ArrayList<File>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (!file.isDirectory()) {
+				files.add(file);
+				continue;
+			}
+			File[] children = file.listFiles();
+			if (children == null) {
+				continue;
+			}
+			Arrays.sort(children);
+			for (File child : children) {
+				if (child.isFile() && !child.isHidden()
+						&& INPUT_EXTENSIONS.contains(FilenameUtils.getExtension(child.getName()).toLowerCase())) {
+					files.add(child);
+				}
+			}
+		}
+		return files;
+	}
+
+	private static void usage() {
+		System.err.println("usage: SBOLDesignerBatch [options] <file or directory>...");
+		System.err.println("  -o <directory>     where to write the results (default: sboldesigner-batch)");
+		System.err.println("  -f <format>        sbol, sbol1, genbank or fasta (default: sbol)");
+		System.err.println("  -expand            expand combinatorial derivations");
+		System.err.println("  -samples <n>       designs to sample when the strategy is sample (default: 10)");
+		System.err.println("  -seed <n>          seed of the sampling");
+		System.err.println("  -stratified        sample every variable part's variants evenly");
+		System.err.println("  -scars             add scars between the parts of the root designs");
+		System.err.println("  -rebuild           rebuild the implied sequences of the root designs");
+		System.err.println("  -prefix <uri>      URI prefix of the objects created");
+		System.err.println("  -threads <n>       files processed at once (default: one per processor)");
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.setProperty("java.awt.headless", "true");
+
+		SBOLDesignerBatch batch = new SBOLDesignerBatch();
+		File outputDirectory = new File("sboldesigner-batch");
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean expand = false;
+		int samples = 10;
+		long seed = System.nanoTime();
+		boolean stratified = false;
+		List<String> paths = new ArrayList<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "-o":
+					outputDirectory = new File(args[++i]);
+					break;
+				case "-f":
+					batch.setFormat(Format.valueOf(args[++i].toUpperCase()));
+					break;
+				case "-expand":
+					expand = true;
+					break;
+				case "-samples":
+					samples = Integer.parseInt(args[++i]);
+					if (samples <= 0) {
+						throw new IllegalArgumentException("-samples must be positive");
+					}
+					break;
+				case "-seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "-stratified":
+					stratified = true;
+					break;
+				case "-scars":
+					batch.setAddScars(true);
+					break;
+				case "-rebuild":
+					batch.setRebuildSequences(true);
+					break;
+				case "-prefix":
+					batch.setURIPrefix(args[++i]);
+					break;
+				case "-threads":
+					threads = Math.max(1, Integer.parseInt(args[++i]));
+					break;
+				default:
+					if (args[i].startsWith("-")) {
+						throw new IllegalArgumentException("Unknown option " + args[i]);
+					}
+					paths.add(args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(e.getMessage());
+			usage();
+			System.exit(2);
+		}
+		batch.setExpand(expand, samples, seed, stratified);
+
+		List<File> files = collectInputs(paths);
+		if (files.isEmpty()) {
+			usage();
+			System.exit(2);
+		}
+
+		int failed = 0;
+		for (Map.Entry<File, Exception> result : batch.processAll(files, outputDirectory, threads).entrySet()) {
+			if (result.getValue() == null) {
+				System.out.println(result.getKey());
+			} else {
+				failed++;
+				System.err.println(result.getKey() + ": " + result.getValue());
+			}
+		}
+		System.exit(failed == 0 ? 0 : 1);
+	}
+}
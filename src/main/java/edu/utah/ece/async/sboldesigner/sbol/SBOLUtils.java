@@ -44,7 +44,6 @@ import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
 import org.sbolstandard.core2.SequenceAnnotation;
-import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstandard.core2.TopLevel;
 import org.synbiohub.frontend.SynBioHubException;
 import org.synbiohub.frontend.SynBioHubFrontend;
@@ -65,6 +64,9 @@ public class SBOLUtils {
 	 * dataType is a TopLevel), the type of object, and the SBOLDocument
 	 * containing the design.
 	 * 
+	 * The suffixes handed out are indexed per owner (see DisplayIdAllocator), so
+	 * repeated calls with the same displayId don't probe from 1 every time.
+	 * 
 	 * @throws SBOLValidationException
 	 */
 	public static String getUniqueDisplayId(ComponentDefinition comp, CombinatorialDerivation derivation,
@@ -72,93 +74,59 @@ public class SBOLUtils {
 		// if can get using some displayId, then try the next number
 		switch (dataType) {
 		case "CD":
-			for (int i = 1; true; i++) {
-				if (i == 1 && design.getComponentDefinition(displayId, version) == null) {
-					return displayId;
-				}
-				if (design.getComponentDefinition(displayId + i, version) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(design, dataType + '\u0000' + version, displayId, 1,
+					id -> design.getComponentDefinition(id, version) != null);
 		case "SequenceAnnotation":
-			for (int i = 1; true; i++) {
-				if (i == 1 && comp.getSequenceAnnotation(displayId) == null) {
-					return displayId;
-				}
-				if (comp.getSequenceAnnotation(displayId + i) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(comp, dataType, displayId, 1,
+					id -> comp.getSequenceAnnotation(id) != null);
 		case "SequenceConstraint":
-			for (int i = 1; true; i++) {
-				if (i == 1 && comp.getSequenceConstraint(displayId) == null) {
-					return displayId;
-				}
-				if (comp.getSequenceConstraint(displayId + i) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(comp, dataType, displayId, 1,
+					id -> comp.getSequenceConstraint(id) != null);
 		case "Component":
-			for (int i = 1; true; i++) {
-				if (i == 1 && comp.getComponent(displayId) == null) {
-					return displayId;
-				}
-				if (comp.getComponent(displayId + i) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(comp, dataType, displayId, 1, id -> comp.getComponent(id) != null);
 		case "Sequence":
-			for (int i = 1; true; i++) {
-				if (i == 1 && design.getSequence(displayId, version) == null) {
-					return displayId;
-				}
-				if (design.getSequence(displayId + i, version) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(design, dataType + '\u0000' + version, displayId, 1,
+					id -> design.getSequence(id, version) != null);
 		case "Range":
-			test: for (int i = 1; true; i++) {
-				for (SequenceAnnotation sa : comp.getSequenceAnnotations()) {
-					if (i == 1 && sa.getLocation(displayId) != null) {
-						continue test;
-					}
-					if (sa.getLocation(displayId + i) != null) {
-						continue test;
-					}
+			// Range ids are unique over all the SequenceAnnotations of comp, so
+			// collect them once instead of scanning every Location per candidate
+			Set<String> used = new HashSet<String>();
+			for (SequenceAnnotation sa : comp.getSequenceAnnotations()) {
+				for (Location location : sa.getLocations()) {
+					used.add(location.getDisplayId());
 				}
-				// This will always return Range, Range2, Range3... etc,
-				// skipping Range1
-				return i == 1 ? displayId : displayId + i;
 			}
+			// This will always return Range, Range2, Range3... etc,
+			// skipping Range1
+			return DisplayIdAllocator.allocate(comp, dataType, displayId, 2,
+					id -> used.contains(id) || (id.equals(displayId) && used.contains(displayId + 1)));
 		case "CombinatorialDerivation":
-			for (int i = 1; true; i++) {
-				if (i == 1 && design.getCombinatorialDerivation(displayId, version) == null) {
-					return displayId;
-				}
-				if (design.getCombinatorialDerivation(displayId + i, version) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(design, dataType + '\u0000' + version, displayId, 1,
+					id -> design.getCombinatorialDerivation(id, version) != null);
 		case "VariableComponent":
-			for (int i = 1; true; i++) {
-				if (i == 1 && derivation.getVariableComponent(displayId) == null) {
-					return displayId;
-				}
-				if (derivation.getVariableComponent(displayId + i) == null) {
-					return displayId + i;
-				}
-			}
+			return DisplayIdAllocator.allocate(derivation, dataType, displayId, 1,
+					id -> derivation.getVariableComponent(id) != null);
 		default:
 			throw new IllegalArgumentException();
 		}
 	}
 
+	/**
+	 * Tells the unique displayId index that displayId, which was returned by
+	 * getUniqueDisplayId for prefix, was removed from comp. Only applies to the
+	 * child namespaces of a CD (SequenceAnnotation, SequenceConstraint,
+	 * Component and Range).
+	 */
+	public static void releaseDisplayId(ComponentDefinition comp, String prefix, String displayId, String dataType) {
+		DisplayIdAllocator.release(comp, dataType, prefix, displayId);
+	}
+
 	/**
 	 * Creates an alphabetized String[] representing SO names of descendant
 	 * roles based on the passed in part's role.
 	 */
 	public static String[] createRefinements(Part part) {
-		SequenceOntology so = new SequenceOntology();
+		SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 		String[] descendantNames;
 		if (part.getRole() != null) {
 			descendantNames = so.getDescendantNamesOf(part.getRole()).toArray(new String[0]);
@@ -180,7 +148,7 @@ public class SBOLUtils {
 	 */
 	public static List<URI> getRefinementRoles(Identified comp, Part part) {
 		ArrayList<URI> list = new ArrayList<URI>();
-		SequenceOntology so = new SequenceOntology();
+		SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 		Set<URI> roles;
 		if (comp instanceof ComponentDefinition) {
 			roles = ((ComponentDefinition) comp).getRoles();
@@ -412,6 +380,14 @@ public class SBOLUtils {
 		return uncoveredSequences;
 	}
 
+	/**
+	 * Rebuilds the SequenceAnnotations and the implied Sequence of comp (and of
+	 * its composite children) from the Sequences of its sorted Components.
+	 */
+	public static void rebuildSequences(ComponentDefinition comp, SBOLDocument doc) throws SBOLValidationException {
+		ImpliedSequences.rebuild(comp, doc);
+	}
+
 	public enum Types {
 		All_types, DNA, Complex, Effector, Protein, RNA, Small_molecule;
 	}
@@ -546,7 +522,7 @@ public class SBOLUtils {
 		} else {
 			// roles exist
 			for (ComponentDefinition cd : setCD) {
-				SequenceOntology so = new SequenceOntology();
+				SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 				for (URI role : cd.getRoles()) {
 					if (so.isDescendantOf(role, part.getRole()) || role.equals(part.getRole())) {
 						list.add(cd);
@@ -0,0 +1,128 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.sbolstandard.core2.Component;
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.Sequence;
+
+/**
+ * Remembers, per ComponentDefinition of a document, whether it is fully
+ * sequenced and how long its implied sequence is. A ComponentDefinition
+ * without Components is fully sequenced if it has a Sequence, one with
+ * Components if all of their definitions are (missing definitions count as
+ * sequenced).
+ *
+ * Results are keyed by identity and reused across the whole hierarchy, so a
+ * sub-part shared by many parents is only looked at once. The parents seen
+ * while computing are remembered, so invalidating a ComponentDefinition also
+ * drops everything that depends on it and nothing else.
+ */
+public class SequenceCompleteness {
+	private static class Entry {
+		final boolean complete;
+		final int length;
+
+		Entry(boolean complete, int length) {
+			this.complete = complete;
+			this.length = length;
+		}
+	}
+
+	private final Map<URI, Entry> entries = new HashMap<URI, Entry>();
+	private final Map<URI, Set<URI>> parents = new HashMap<URI, Set<URI>>();
+	private final Set<URI> visiting = new HashSet<URI>();
+
+	/**
+	 * Returns true if comp and all its descendants have the sequences needed
+	 * to imply comp's sequence.
+	 */
+	public boolean isComplete(ComponentDefinition comp) {
+		return comp == null || get(comp).complete;
+	}
+
+	/**
+	 * Returns the length of comp's sequence if it has no Components, or the
+	 * sum of its sub-parts' lengths otherwise. Returns -1 if comp isn't fully
+	 * sequenced or a sub-part's definition is missing.
+	 */
+	public int getImpliedLength(ComponentDefinition comp) {
+		return comp == null ? -1 : get(comp).length;
+	}
+
+	/**
+	 * Drops what is known about comp and its ancestors.
+	 */
+	public void invalidate(ComponentDefinition comp) {
+		if (comp == null) {
+			return;
+		}
+		Deque<URI> stale = new ArrayDeque<URI>();
+		stale.push(comp.getIdentity());
+		while (!stale.isEmpty()) {
+			URI uri = stale.pop();
+			if (entries.remove(uri) != null) {
+				Set<URI> ancestors = parents.get(uri);
+				if (ancestors != null) {
+					stale.addAll(ancestors);
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+		parents.clear();
+	}
+
+	private Entry get(ComponentDefinition comp) {
+		URI uri = comp.getIdentity();
+		Entry entry = entries.get(uri);
+		if (entry != null) {
+			return entry;
+		}
+		if (!visiting.add(uri)) {
+			// a cycle can't be sequenced
+			return new Entry(false, -1);
+		}
+
+		try {
+			if (comp.getComponents().isEmpty()) {
+				entry = new Entry(!comp.getSequences().isEmpty(), sequenceLength(comp));
+			} else {
+				boolean complete = true;
+				int length = 0;
+				for (Component component : comp.getComponents()) {
+					parents.computeIfAbsent(component.getDefinitionURI(), k -> new HashSet<URI>()).add(uri);
+					ComponentDefinition definition = component.getDefinition();
+					if (definition == null) {
+						length = -1;
+						continue;
+					}
+					Entry child = get(definition);
+					complete &= child.complete;
+					length = child.length < 0 || length < 0 ? -1 : length + child.length;
+				}
+				entry = new Entry(complete, complete ? length : -1);
+			}
+		} finally {
+			visiting.remove(uri);
+		}
+		entries.put(uri, entry);
+		return entry;
+	}
+
+	private static int sequenceLength(ComponentDefinition comp) {
+		Sequence sequence = comp.getSequenceByEncoding(Sequence.IUPAC_DNA);
+		if (sequence == null && !comp.getSequences().isEmpty()) {
+			sequence = comp.getSequences().iterator().next();
+		}
+		return sequence == null ? -1 : sequence.getElements().length();
+	}
+}
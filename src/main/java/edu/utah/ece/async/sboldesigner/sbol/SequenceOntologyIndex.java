@@ -0,0 +1,106 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sbolstandard.core2.SequenceOntology;
+
+/**
+ * A single SequenceOntology shared by the whole application, with the lookups
+ * we do over and over memoized. The descendants of a term are computed once,
+ * the first time the term is asked about, after which isDescendantOf is a set
+ * lookup.
+ */
+public enum SequenceOntologyIndex {
+	INSTANCE;
+
+	private final SequenceOntology so = new SequenceOntology();
+
+	private final Map<URI, Set<URI>> descendants = new ConcurrentHashMap<URI, Set<URI>>();
+	private final Map<URI, Set<String>> descendantNames = new ConcurrentHashMap<URI, Set<String>>();
+	private final Map<URI, Optional<String>> names = new ConcurrentHashMap<URI, Optional<String>>();
+	private final Map<String, Optional<URI>> urisByName = new ConcurrentHashMap<String, Optional<URI>>();
+	private final Map<String, Optional<URI>> urisById = new ConcurrentHashMap<String, Optional<URI>>();
+
+	/**
+	 * Returns true if child is a strict descendant of parent.
+	 */
+	public boolean isDescendantOf(URI child, URI parent) {
+		if (child == null || parent == null) {
+			return false;
+		}
+		return getDescendantURIsOf(parent).contains(child);
+	}
+
+	/**
+	 * Returns the URIs of all the descendants of parent. The set must not be
+	 * modified.
+	 */
+	public Set<URI> getDescendantURIsOf(URI parent) {
+		if (parent == null) {
+			return Collections.emptySet();
+		}
+		return descendants.computeIfAbsent(parent, k -> {
+			synchronized (so) {
+				Set<URI> uris = so.getDescendantURIsOf(k);
+				return uris == null ? Collections.<URI> emptySet()
+						: Collections.unmodifiableSet(new HashSet<URI>(uris));
+			}
+		});
+	}
+
+	/**
+	 * Returns the names of all the descendants of parent. The set must not be
+	 * modified.
+	 */
+	public Set<String> getDescendantNamesOf(URI parent) {
+		if (parent == null) {
+			return Collections.emptySet();
+		}
+		return descendantNames.computeIfAbsent(parent, k -> {
+			synchronized (so) {
+				Set<String> result = so.getDescendantNamesOf(k);
+				return result == null ? Collections.<String> emptySet()
+						: Collections.unmodifiableSet(new HashSet<String>(result));
+			}
+		});
+	}
+
+	public String getName(URI uri) {
+		if (uri == null) {
+			return null;
+		}
+		return names.computeIfAbsent(uri, k -> {
+			synchronized (so) {
+				return Optional.ofNullable(so.getName(k));
+			}
+		}).orElse(null);
+	}
+
+	public URI getURIbyName(String name) {
+		if (name == null) {
+			return null;
+		}
+		return urisByName.computeIfAbsent(name, k -> {
+			synchronized (so) {
+				return Optional.ofNullable(so.getURIbyName(k));
+			}
+		}).orElse(null);
+	}
+
+	public URI getURIbyId(String id) {
+		if (id == null) {
+			return null;
+		}
+		return urisById.computeIfAbsent(id, k -> {
+			synchronized (so) {
+				return Optional.ofNullable(so.getURIbyId(k));
+			}
+		}).orElse(null);
+	}
+}
@@ -0,0 +1,159 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A sequence concatenated from pieces without copying them: a balanced binary
+ * tree whose leaves are the pieces. Ropes given as pieces become subtrees, so
+ * the rope of a composite part shares the ropes of its children, and
+ * reverse-complemented pieces can be views from CharSequenceUtil.
+ *
+ * charAt walks down the tree, toString copies every piece once.
+ */
+public class SequenceRope implements CharSequence {
+	private static final SequenceRope EMPTY = new SequenceRope("");
+
+	private final CharSequence leaf;
+	private final SequenceRope left;
+	private final SequenceRope right;
+	private final int length;
+
+	private SequenceRope(CharSequence leaf) {
+		this.leaf = leaf;
+		this.left = null;
+		this.right = null;
+		this.length = leaf.length();
+	}
+
+	private SequenceRope(SequenceRope left, SequenceRope right) {
+		this.leaf = null;
+		this.left = left;
+		this.right = right;
+		this.length = left.length + right.length;
+	}
+
+	/**
+	 * Returns the concatenation of pieces.
+	 */
+	public static SequenceRope of(List<? extends CharSequence> pieces) {
+		return of(pieces, 0, pieces.size());
+	}
+
+	private static SequenceRope of(List<? extends CharSequence> pieces, int from, int to) {
+		if (to - from == 0) {
+			return EMPTY;
+		}
+		if (to - from == 1) {
+			CharSequence piece = pieces.get(from);
+			return piece instanceof SequenceRope ? (SequenceRope) piece : new SequenceRope(piece);
+		}
+		int mid = (from + to) >>> 1;
+		SequenceRope left = of(pieces, from, mid);
+		SequenceRope right = of(pieces, mid, to);
+		if (left.length == 0) {
+			return right;
+		}
+		if (right.length == 0) {
+			return left;
+		}
+		return new SequenceRope(left, right);
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		SequenceRope node = this;
+		while (node.leaf == null) {
+			if (index < node.left.length) {
+				node = node.left;
+			} else {
+				index -= node.left.length;
+				node = node.right;
+			}
+		}
+		return node.leaf.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+		if (start == 0 && end == length) {
+			return this;
+		}
+		if (leaf != null) {
+			return leaf.subSequence(start, end);
+		}
+		if (end <= left.length) {
+			return left.subSequence(start, end);
+		}
+		if (start >= left.length) {
+			return right.subSequence(start - left.length, end - left.length);
+		}
+		CharSequence head = left.subSequence(start, left.length);
+		CharSequence tail = right.subSequence(0, end - left.length);
+		return new SequenceRope(head instanceof SequenceRope ? (SequenceRope) head : new SequenceRope(head),
+				tail instanceof SequenceRope ? (SequenceRope) tail : new SequenceRope(tail));
+	}
+
+	/**
+	 * Copies the characters from srcBegin to srcEnd into dst at dstBegin, like
+	 * String.getChars, a piece at a time.
+	 */
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		if (srcBegin < 0 || srcEnd > length || srcBegin > srcEnd) {
+			throw new IndexOutOfBoundsException("start: " + srcBegin + ", end: " + srcEnd + ", length: " + length);
+		}
+		if (srcBegin == srcEnd) {
+			return;
+		}
+		if (leaf != null) {
+			CharSequenceUtil.getChars(leaf, srcBegin, srcEnd, dst, dstBegin);
+			return;
+		}
+		if (srcBegin < left.length) {
+			int leftEnd = Math.min(srcEnd, left.length);
+			left.getChars(srcBegin, leftEnd, dst, dstBegin);
+			dstBegin += leftEnd - srcBegin;
+		}
+		if (srcEnd > left.length) {
+			right.getChars(Math.max(0, srcBegin - left.length), srcEnd - left.length, dst, dstBegin);
+		}
+	}
+
+	/**
+	 * Appends the pieces to builder in order, copying views in bulk.
+	 */
+	public void appendTo(StringBuilder builder) {
+		if (leaf != null) {
+			try {
+				CharSequenceUtil.writeTo(leaf, builder);
+			} catch (IOException e) {
+				// a StringBuilder doesn't throw
+				throw new IllegalStateException(e);
+			}
+		} else {
+			left.appendTo(builder);
+			right.appendTo(builder);
+		}
+	}
+
+	@Override
+	public String toString() {
+		if (leaf instanceof String) {
+			return (String) leaf;
+		}
+		StringBuilder builder = new StringBuilder(length);
+		appendTo(builder);
+		return builder.toString();
+	}
+}
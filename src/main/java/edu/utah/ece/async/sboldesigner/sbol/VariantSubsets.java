@@ -0,0 +1,89 @@
+package edu.utah.ece.async.sboldesigner.sbol;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.sbolstandard.core2.ComponentDefinition;
+
+/**
+ * The subsets of a pool of variants that a ONEORMORE or ZEROORMORE operator
+ * allows. A subset is a bitmask over the pool and subsets are numbered in Gray
+ * code order, so consecutive subsets differ by a single variant. Nothing but
+ * the pool is stored; a subset is an unmodifiable view of its mask over the
+ * pool.
+ */
+public class VariantSubsets {
+	private final ComponentDefinition[] variants;
+	private final boolean includeEmpty;
+
+	public VariantSubsets(ComponentDefinition[] variants, boolean includeEmpty) {
+		this.variants = variants;
+		this.includeEmpty = includeEmpty;
+	}
+
+	/**
+	 * The number of subsets. Throws ArithmeticException if it doesn't fit in
+	 * a long.
+	 */
+	public long size() {
+		if (variants.length > 62) {
+			throw new ArithmeticException(variants.length + " variants have too many subsets");
+		}
+		return includeEmpty ? 1L << variants.length : (1L << variants.length) - 1;
+	}
+
+	/**
+	 * Returns the bitmask of the index'th subset.
+	 */
+	public long mask(long index) {
+		long rank = includeEmpty ? index : index + 1;
+		return rank ^ (rank >>> 1);
+	}
+
+	/**
+	 * Returns the index'th subset.
+	 */
+	public Set<ComponentDefinition> get(long index) {
+		return new Subset(mask(index));
+	}
+
+	/**
+	 * The variants whose bits are set in mask, in pool order.
+	 */
+	private class Subset extends AbstractSet<ComponentDefinition> {
+		private final long mask;
+
+		Subset(long mask) {
+			this.mask = mask;
+		}
+
+		@Override
+		public int size() {
+			return Long.bitCount(mask);
+		}
+
+		@Override
+		public Iterator<ComponentDefinition> iterator() {
+			return new Iterator<ComponentDefinition>() {
+				private long rest = mask;
+
+				@Override
+				public boolean hasNext() {
+					return rest != 0;
+				}
+
+				@Override
+				public ComponentDefinition next() {
+					if (rest == 0) {
+						throw new NoSuchElementException();
+					}
+					int bit = Long.numberOfTrailingZeros(rest);
+					rest &= rest - 1;
+					return variants[bit];
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.OrientationType;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.LoadingDialog;
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.MessageDialog;
+import edu.utah.ece.async.sboldesigner.sbol.editor.io.DocumentIO;
+
+/**
+ * Opens a document without blocking the EDT. Reading, validating and
+ * resolving the parts and glyphs of the document happen in the background
+ * while a LoadingDialog shows the progress and lets the user cancel. Only the
+ * finished document is handed to SBOLDesign.load on the EDT, which then finds
+ * the parts and glyphs it needs already cached.
+ * <p>
+ * SBOLDesign.load itself still runs on the EDT in one go: ordering the
+ * components, creating their labels and patching the canvas CD. The labels
+ * are Swing components and the canvas state is read by its listeners, so
+ * building it across several events would show a half loaded design. For
+ * very large designs the EDT is therefore still busy for the length of that
+ * last step.
+ */
+public class DocumentLoader extends SwingWorker<SBOLDocument, String> {
+	private final Component parent;
+	private final DocumentIO documentIO;
+	private final SBOLDesign design;
+	private final Runnable onLoaded;
+	private LoadingDialog loading;
+	private List<String> errors;
+
+	/**
+	 * onLoaded is run on the EDT once the document is shown in design.
+	 */
+	public DocumentLoader(Component parent, DocumentIO documentIO, SBOLDesign design, Runnable onLoaded) {
+		this.parent = parent;
+		this.documentIO = documentIO;
+		this.design = design;
+		this.onLoaded = onLoaded;
+	}
+
+	/**
+	 * Shows the loading dialog and starts loading. Must be called on the EDT.
+	 */
+	public void start() {
+		try {
+			loading = new LoadingDialog(parent, () -> cancel(true));
+			loading.start();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		execute();
+	}
+
+	@Override
+	protected SBOLDocument doInBackground() throws Exception {
+		publish("Reading " + documentIO);
+		SBOLDocument doc = documentIO.read();
+		if (isCancelled()) {
+			return null;
+		}
+
+		publish("Validating");
+		errors = SBOLDesign.prepare(doc);
+		if (isCancelled()) {
+			return null;
+		}
+
+		publish("Preparing glyphs");
+		for (ComponentDefinition CD : doc.getComponentDefinitions()) {
+			if (isCancelled()) {
+				return null;
+			}
+			boolean composite = !CD.getComponents().isEmpty();
+			boolean hasSequence = composite || !CD.getSequences().isEmpty();
+			Part part = Parts.forIdentified(CD);
+			part.getImage(OrientationType.INLINE, composite, false, hasSequence);
+			part.getImage(OrientationType.INLINE, composite, false, hasSequence, true);
+		}
+		return doc;
+	}
+
+	@Override
+	protected void process(List<String> chunks) {
+		if (loading != null) {
+			loading.setMessage(chunks.get(chunks.size() - 1));
+		}
+	}
+
+	@Override
+	protected void done() {
+		if (loading != null) {
+			loading.stop();
+		}
+		if (isCancelled()) {
+			return;
+		}
+
+		try {
+			SBOLDocument doc = get();
+			if (doc != null && design.load(doc, null, errors)) {
+				onLoaded.run();
+			}
+		} catch (ExecutionException e) {
+			MessageDialog.showMessage(parent, "There was a problem opening this document: ",
+					e.getCause().getMessage());
+			e.getCause().printStackTrace();
+		} catch (SBOLValidationException e) {
+			MessageDialog.showMessage(parent, "There was a problem opening this document: ", e.getMessage());
+			e.printStackTrace();
+		} catch (InterruptedException | CancellationException e) {
+			// the user canceled
+		}
+	}
+}
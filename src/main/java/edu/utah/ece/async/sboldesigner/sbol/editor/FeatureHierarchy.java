@@ -0,0 +1,136 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLDesign.Feature;
+
+/**
+ * Nested containment list over the features of the canvas CD, built once per
+ * canvas from the SequenceAnnotation ranges. Every feature is the child of the
+ * closest feature properly containing it, and every list of siblings is sorted
+ * by start with ends increasing too, so the features overlapping a range are
+ * found with a binary search per visited list instead of by comparing every
+ * pair of features.
+ */
+class FeatureHierarchy {
+	private static final Comparator<Feature> BY_START_THEN_LONGEST = Comparator.<Feature> comparingInt(f -> f.start)
+			.thenComparing(Comparator.<Feature> comparingInt(f -> f.end).reversed());
+
+	private final List<Feature> roots = new ArrayList<Feature>();
+	private final Map<SBOLDesign.DesignElement, Feature> byElement = new HashMap<SBOLDesign.DesignElement, Feature>();
+
+	FeatureHierarchy(Collection<Feature> features) {
+		List<Feature> sorted = new ArrayList<Feature>(features);
+		sorted.sort(BY_START_THEN_LONGEST);
+
+		Deque<Feature> stack = new ArrayDeque<Feature>();
+		for (Feature f : sorted) {
+			f.children.clear();
+			byElement.put(f.element, f);
+			while (!stack.isEmpty() && !containsProperly(stack.peek(), f)) {
+				stack.pop();
+			}
+			if (stack.isEmpty()) {
+				roots.add(f);
+			} else {
+				stack.peek().addChild(f);
+			}
+			stack.push(f);
+		}
+	}
+
+	/**
+	 * Returns true if outer contains inner and they don't have the same range.
+	 */
+	private static boolean containsProperly(Feature outer, Feature inner) {
+		return outer.start <= inner.start && inner.end <= outer.end
+				&& (outer.start < inner.start || inner.end < outer.end);
+	}
+
+	Feature getFeature(SBOLDesign.DesignElement element) {
+		return byElement.get(element);
+	}
+
+	/**
+	 * Returns the features within parent that no other feature within parent
+	 * properly contains, or the features no other feature properly contains if
+	 * parent is null.
+	 */
+	List<Feature> getMaximalFeatures(Feature parent) {
+		List<Feature> candidates = new ArrayList<Feature>();
+		if (parent == null) {
+			candidates.addAll(roots);
+		} else {
+			collectInside(roots, parent.start, parent.end, parent, candidates);
+		}
+
+		// candidates don't contain each other along the tree, but may across
+		// branches of overlapping features
+		candidates.sort(BY_START_THEN_LONGEST);
+		List<Feature> maximal = new ArrayList<Feature>();
+		int maxEnd = Integer.MIN_VALUE;
+		int i = 0;
+		while (i < candidates.size()) {
+			Feature first = candidates.get(i);
+			int j = i;
+			while (j < candidates.size() && candidates.get(j).start == first.start
+					&& candidates.get(j).end == first.end) {
+				j++;
+			}
+			if (maxEnd < first.end) {
+				maximal.addAll(candidates.subList(i, j));
+				maxEnd = first.end;
+			}
+			i = j;
+		}
+		return maximal;
+	}
+
+	/**
+	 * Returns true if another feature with a different range lies within f.
+	 */
+	boolean hasFeaturesInside(Feature f) {
+		List<Feature> inside = new ArrayList<Feature>();
+		collectInside(roots, f.start, f.end, f, inside);
+		for (Feature g : inside) {
+			if (g.start != f.start || g.end != f.end || !g.children.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the topmost features of list and its descendants that lie within
+	 * [start, end], skipping exclude.
+	 */
+	private static void collectInside(List<Feature> list, int start, int end, Feature exclude, List<Feature> result) {
+		// ends increase along a list, so skip the ones ending before start
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (list.get(mid).end < start) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		for (int i = low; i < list.size() && list.get(i).start <= end; i++) {
+			Feature g = list.get(i);
+			if (g != exclude && start <= g.start && g.end <= end) {
+				result.add(g);
+			} else if (!g.children.isEmpty()) {
+				collectInside(g.children, start, end, exclude, result);
+			}
+		}
+	}
+}
@@ -15,10 +15,13 @@
 
 package edu.utah.ece.async.sboldesigner.sbol.editor;
 
+import java.awt.Color;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.sbolstandard.core2.ComponentDefinition;
 import org.sbolstandard.core2.OrientationType;
@@ -58,6 +61,61 @@ public class Part {
 	public static final int IMG_HEIGHT = 128;
 	public static final int IMG_WIDTH = 64;
 
+	/**
+	 * Maximum number of glyphs kept by getImage. Every part has at most 32
+	 * glyphs, so this covers all the glyphs a design typically shows.
+	 */
+	private static final int GLYPH_CACHE_SIZE = 1024;
+
+	/**
+	 * The overlays, decoded and scaled once when first used.
+	 */
+	private static class Overlays {
+		static final BufferedImage COMPOSITE = load("composite-overlay.png");
+		static final BufferedImage VARIANT = load("variant-overlay.png");
+		static final BufferedImage WARNING = load("error-advice-sign-overlay.png");
+
+		private static BufferedImage load(String fileName) {
+			return Images.toBufferedImage(Images.scaleImageToWidth(Images.getPartImage(fileName), IMG_WIDTH));
+		}
+	}
+
+	/**
+	 * Glyphs by part and flags, least recently used first.
+	 */
+	private static final Map<GlyphKey, Image> GLYPHS = new LinkedHashMap<GlyphKey, Image>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<GlyphKey, Image> eldest) {
+			return size() > GLYPH_CACHE_SIZE;
+		}
+	};
+
+	private static class GlyphKey {
+		final Part part;
+		final int flags;
+
+		GlyphKey(Part part, int flags) {
+			this.part = part;
+			this.flags = flags;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof GlyphKey)) {
+				return false;
+			}
+			GlyphKey other = (GlyphKey) obj;
+			return part == other.part && flags == other.flags;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(part) + flags;
+		}
+	}
+
 	private final String name;
 	private final String displayId;
 	private final List<URI> roles;
@@ -134,12 +192,39 @@ public class Part {
 	 * Returns the image for the part that can be used in the SBOL design.
 	 */
 	public Image getImage(OrientationType orientation, boolean composite, boolean hasVariants, boolean hasSequence) {
+		return getImage(orientation, composite, hasVariants, hasSequence, false);
+	}
+
+	/**
+	 * Returns the image for the part that can be used in the SBOL design, with
+	 * a border if selected. Images are cached and shared, so they must not be
+	 * modified.
+	 */
+	public Image getImage(OrientationType orientation, boolean composite, boolean hasVariants, boolean hasSequence,
+			boolean selected) {
+		boolean reverse = orientation == OrientationType.REVERSECOMPLEMENT;
+		int flags = (reverse ? 1 : 0) | (composite ? 2 : 0) | (hasVariants ? 4 : 0) | (hasSequence ? 8 : 0)
+				| (selected ? 16 : 0);
+		GlyphKey key = new GlyphKey(this, flags);
+		synchronized (GLYPHS) {
+			Image image = GLYPHS.get(key);
+			if (image == null) {
+				image = selected
+						? Images.createBorderedImage(getImage(orientation, composite, hasVariants, hasSequence, false),
+								Color.LIGHT_GRAY)
+						: createImage(orientation, composite, hasVariants, hasSequence);
+				GLYPHS.put(key, image);
+			}
+			return image;
+		}
+	}
+
+	private Image createImage(OrientationType orientation, boolean composite, boolean hasVariants,
+			boolean hasSequence) {
 		Image image = this.largeImage;
 		boolean hasRotatedComposite = false;
 		if (composite) {
-			BufferedImage scaledCompositeOverlay = Images
-					.toBufferedImage(Images.scaleImageToWidth(Images.getPartImage("composite-overlay.png"), IMG_WIDTH));
-			image = Images.overlay(image, scaledCompositeOverlay, IMG_WIDTH, IMG_HEIGHT);
+			image = Images.overlay(image, Overlays.COMPOSITE, IMG_WIDTH, IMG_HEIGHT);
 			if (orientation == OrientationType.REVERSECOMPLEMENT) {
 				image = Images.rotate180(image);
 				hasRotatedComposite = true;
@@ -153,14 +238,10 @@ public class Part {
 		}
 		
 		if (hasVariants) {
-			BufferedImage scaledVariantOverlay = Images
-					.toBufferedImage(Images.scaleImageToWidth(Images.getPartImage("variant-overlay.png"), IMG_WIDTH));
-			image = Images.overlay(image, scaledVariantOverlay, IMG_WIDTH, IMG_HEIGHT);
+			image = Images.overlay(image, Overlays.VARIANT, IMG_WIDTH, IMG_HEIGHT);
 		} else {
 			if (!hasSequence) {
-				BufferedImage scaledWarningOverlay = Images.toBufferedImage(
-						Images.scaleImageToWidth(Images.getPartImage("error-advice-sign-overlay.png"), IMG_WIDTH));
-				image = Images.overlay(image, scaledWarningOverlay, IMG_WIDTH, IMG_HEIGHT);
+				image = Images.overlay(image, Overlays.WARNING, IMG_WIDTH, IMG_HEIGHT);
 			}
 		}
 
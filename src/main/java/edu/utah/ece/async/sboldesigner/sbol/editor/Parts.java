@@ -17,8 +17,12 @@ package edu.utah.ece.async.sboldesigner.sbol.editor;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sbolstandard.core2.Component;
 import org.sbolstandard.core2.ComponentDefinition;
@@ -29,6 +33,7 @@ import org.sbolstandard.core2.SequenceOntology;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import edu.utah.ece.async.sboldesigner.sbol.SequenceOntologyIndex;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Part.ImageType;
 
 public class Parts {
@@ -41,6 +46,16 @@ public class Parts {
 	
 	private static final List<Part> RENDERED_PARTS = Lists.newArrayList();
 
+	/**
+	 * What forRole resolved each role to, including roles without a part.
+	 */
+	private static final Map<URI, Optional<Part>> RESOLVED_ROLES = new ConcurrentHashMap<URI, Optional<Part>>();
+
+	/**
+	 * What forIdentified resolved each set of roles to.
+	 */
+	private static final Map<Set<URI>, Part> RESOLVED_ROLE_SETS = new ConcurrentHashMap<Set<URI>, Part>();
+
 	// unspecified part is for parts without roles that get opened
 	public static final Part UNSPECIFIED = createPart("Unspecified", "UNS", "unspecified.png",
 			ImageType.TALL_OVER_BASELINE, false, SequenceOntology.SEQUENCE_FEATURE);
@@ -117,10 +132,23 @@ public class Parts {
 
 	private static Iterable<Part> SORTED_PARTS;
 
+	static {
+		// resolve every role under a glyph up front so loading big designs
+		// only does lookups
+		for (Part part : PARTS_LIST) {
+			if (part == UNSPECIFIED || part == NO_GLYPH_ASSIGNED) {
+				continue;
+			}
+			for (URI role : SequenceOntologyIndex.INSTANCE.getDescendantURIsOf(part.getRole())) {
+				forRole(role);
+			}
+		}
+	}
+
 	private static Part createPart(String name, String displayId, String imageFileName, ImageType imageType, boolean inPalette,
 			String... soIDs) {
 		URI[] roles = new URI[soIDs.length];
-		SequenceOntology so = new SequenceOntology();
+		SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 		for (int i = 0; i < soIDs.length; i++) {
 			roles[i] = so.getURIbyId(soIDs[i]);
 		}
@@ -165,11 +193,18 @@ public class Parts {
 	 * Returns a part for the given role.
 	 */
 	public static Part forRole(URI role) {
+		if (role == null) {
+			return null;
+		}
+		return RESOLVED_ROLES.computeIfAbsent(role, k -> Optional.ofNullable(resolveRole(k))).orElse(null);
+	}
+
+	private static Part resolveRole(URI role) {
 		if (PARTS.get(role) != null) {
 			return PARTS.get(role);
 		}
 
-		SequenceOntology so = new SequenceOntology();
+		SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 		for (Part part : PARTS.values()) {
 			if (part == UNSPECIFIED  || part == NO_GLYPH_ASSIGNED) {
 				// UNSPECIFIED has role SequenceFeature, which all other roles
@@ -185,7 +220,6 @@ public class Parts {
 	}
 
 	public static Part forIdentified(Identified identified) {
-		Part result = null;
 		Collection<URI> roles;
 		if (identified instanceof ComponentDefinition) {
 			roles = ((ComponentDefinition) identified).getRoles();
@@ -196,6 +230,18 @@ public class Parts {
 		} else {
 			return UNSPECIFIED;
 		}
+		if (roles.size() == 1) {
+			Part part = forRole(roles.iterator().next());
+			return part != null ? part : NO_GLYPH_ASSIGNED;
+		}
+		return RESOLVED_ROLE_SETS.computeIfAbsent(new HashSet<URI>(roles), Parts::resolveRoles);
+	}
+
+	/**
+	 * Returns the part of the first role that has one.
+	 */
+	private static Part resolveRoles(Collection<URI> roles) {
+		Part result = null;
 		if (!roles.isEmpty()) {
 			for (URI role : roles) {
 				Part part = Parts.forRole(role);
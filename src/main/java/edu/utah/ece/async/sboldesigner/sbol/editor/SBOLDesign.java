@@ -42,7 +42,6 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
@@ -53,7 +52,7 @@ import java.util.Arrays;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -90,6 +89,7 @@ import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.SBOLWriter;
 import org.sbolstandard.core2.Sequence;
 import org.sbolstandard.core2.SequenceAnnotation;
+import org.sbolstandard.core2.SequenceConstraint;
 import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstandard.core2.TopLevel;
 import org.sbolstandard.core2.VariableComponent;
@@ -110,6 +110,8 @@ import edu.utah.ece.async.sboldesigner.sbol.CombinatorialExpansionUtil;
 import edu.utah.ece.async.sboldesigner.sbol.ProvenanceUtil;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils.Types;
+import edu.utah.ece.async.sboldesigner.sbol.SequenceCompleteness;
+import edu.utah.ece.async.sboldesigner.sbol.SequenceOntologyIndex;
 import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.ComponentDefinitionBox;
 import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.MessageDialog;
 import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.PartEditDialog;
@@ -234,7 +236,7 @@ public class SBOLDesign {
 		protected void perform() {
 			try {
 				expandCombinatorial();
-			} catch (SBOLValidationException | FileNotFoundException | SBOLConversionException e) {
+			} catch (SBOLValidationException | IOException | SBOLConversionException e) {
 				MessageDialog.showMessage(panel, "There was a problem performing the combinatorial design expansion: ",
 						e.getMessage());
 				e.printStackTrace();
@@ -366,6 +368,11 @@ public class SBOLDesign {
 	 */
 	private SBOLDocument design;
 
+	/**
+	 * Which CDs of design are fully sequenced.
+	 */
+	private final SequenceCompleteness completeness = new SequenceCompleteness();
+
 	/**
 	 * The current CD displayed in the canvas.
 	 */
@@ -377,6 +384,10 @@ public class SBOLDesign {
 	 * */
 	public final static ArrayList<Feature> features = new ArrayList<Feature>();
 	private final Stack<Feature> featureRange = new Stack<Feature>();
+	/**
+	 * Containment of the features, built when the canvas is populated.
+	 */
+	private FeatureHierarchy featureHierarchy;
 	private final Stack<Integer> zoomStack = new Stack<Integer>();
 
 	private final Deque<ComponentDefinition> parentCDs = new ArrayDeque<ComponentDefinition>();
@@ -478,24 +489,12 @@ public class SBOLDesign {
 	}
 	
 	private boolean isElementCompositeFeature(DesignElement e) {
-		boolean iscomposite = false;
-		if(!features.isEmpty()) {
-			for(Feature f: features) {
-				if(f.element.equals(e)) {
-					iscomposite = false;
-					for(int j = 0; j < features.size(); j++) {
-						if(features.get(j).start >= f.start && features.get(j).end <= f.end && !features.get(j).element.equals(e)) {
-							if(features.get(j).start > f.start || features.get(j).end < f.end) {
-								iscomposite = true;
-								break;
-							}
-						}
-					}
-					break;
-				}
-			}
+		// the hierarchy is built once all the features are added
+		if (featureHierarchy == null) {
+			return false;
 		}
-		return iscomposite;
+		Feature f = featureHierarchy.getFeature(e);
+		return f != null && featureHierarchy.hasFeaturesInside(f);
 	}
 
 	public void focusIn() throws SBOLValidationException {
@@ -507,7 +506,7 @@ public class SBOLDesign {
 			for(Feature f: features) {
 				if(f.element.equals(selectedElement)) {
 					featureRange.push(f);
-					displayFeatures();
+					displayFeatures(f);
 					break;
 				}
 			}
@@ -532,88 +531,28 @@ public class SBOLDesign {
 		updateEnabledActions();
 	}
 	
-	private void displayFeatures() throws SBOLValidationException {
-		int start = featureRange.peek().start;
-		int end = featureRange.peek().end;
-		setElementVisible(featureRange.peek().element, false);
-		features.remove(featureRange.peek());
-		ArrayList<Feature> currentlyDisplayedFeatures = new ArrayList<Feature>();
-		//ArrayList<DesignElement> currentlyDisplayedElements = new ArrayList<DesignElement>();
-		for(int i = 0; i < features.size(); i++) {
-			Feature f = features.get(i);
-			if(f.start >= start && f.end <= end) {
-				setElementVisible(f.element, true);
-				currentlyDisplayedFeatures.add(f);
-				for(int j = 0; j < features.size(); j++) {
-					if(features.get(j).start > start && features.get(j).end < end) {
-						if(features.get(j).start <= f.start && features.get(j).end >= f.end && i != j) {
-							if(features.get(j).start < f.start || features.get(j).end > f.end) {
-								setElementVisible(f.element, false);
-								currentlyDisplayedFeatures.remove(f);
-								break;
-							}
-							
-						}
-					}
-				}
-			}else {
-				setElementVisible(f.element, false);
-			}
+	/**
+	 * Shows the features directly within parent, or the top-level features if
+	 * parent is null, and hides the rest.
+	 */
+	private void displayFeatures(Feature parent) throws SBOLValidationException {
+		List<Feature> displayed = featureHierarchy.getMaximalFeatures(parent);
+		Set<DesignElement> displayedElements = new HashSet<DesignElement>();
+		for (Feature f : displayed) {
+			displayedElements.add(f.element);
 		}
-		for(Feature f : currentlyDisplayedFeatures){
-			setElementVisible(f.element, true);
+		for (Feature f : features) {
 			JLabel button = buttons.get(f.element);
-			setupIcons(button, f.element);
-		}
-		return;
-	}
-	private void displayFeatures(Feature parent) throws SBOLValidationException {
-		features.add(parent);
-		ArrayList<Feature> currentlyDisplayedFeatures = new ArrayList<Feature>();
-		if(!featureRange.isEmpty()) {
-			int start = featureRange.peek().start;
-			int end = featureRange.peek().end;
-			for(int i = 0; i < features.size(); i++) {
-				Feature f = features.get(i);
-				if(f.start >= featureRange.peek().start && f.end <= featureRange.peek().end) {
-					setElementVisible(f.element, true);
-					currentlyDisplayedFeatures.add(f);
-					for(int j = 0; j < features.size(); j++) {
-						if(features.get(j).start > start && features.get(j).end < end) {
-							if(features.get(j).start <= f.start && features.get(j).end >= f.end && i != j) {
-								if(features.get(j).start < f.start || features.get(j).end > f.end) {
-									setElementVisible(f.element, false);
-									currentlyDisplayedFeatures.remove(f);
-									break;
-								}
-							}
-						}
-					}
-				}
-			}
-		}else {
-			for(int i = 0; i < features.size(); i++) {
-				Feature f = features.get(i);
-				setElementVisible(f.element, true);
-				currentlyDisplayedFeatures.add(f);
-				for(int j = 0; j < features.size(); j++) {
-					if(features.get(j).start <= f.start && features.get(j).end >= f.end && i != j) {
-						if(features.get(j).start < f.start || features.get(j).end > f.end) {
-							setElementVisible(f.element, false);
-							currentlyDisplayedFeatures.remove(f);
-							break;
-						}
-					}
-				}
+			if (button != null) {
+				button.setVisible(displayedElements.contains(f.element));
 			}
 		}
-		for(Feature f : currentlyDisplayedFeatures){
-			setElementVisible(f.element, true);
+		for (Feature f : displayed) {
 			JLabel button = buttons.get(f.element);
 			setupIcons(button, f.element);
 		}
-
-	} 
+		refreshUI();
+	}
 
 	public boolean canFocusOut() {
 		boolean zoom = false;
@@ -631,8 +570,10 @@ public class SBOLDesign {
 		Preconditions.checkState(canFocusOut(), "No parent design to focus out");
 
 		if(zoomStack != null) {
-			if(zoomStack.pop() == 1)
-				displayFeatures(featureRange.pop());
+			if(zoomStack.pop() == 1) {
+				featureRange.pop();
+				displayFeatures(featureRange.isEmpty() ? null : featureRange.peek());
+			}
 			else {
 				features.clear();
 				featureRange.clear();
@@ -672,14 +613,29 @@ public class SBOLDesign {
 			JOptionPane.showMessageDialog(panel, "No document to load.", "Load error", JOptionPane.ERROR_MESSAGE);
 			return false;
 		}
+		return load(doc, rootUri, prepare(doc));
+	}
+
+	/**
+	 * The part of loading doc that doesn't touch the UI, so it can be done off
+	 * the EDT. Returns the validation errors to pass to load.
+	 */
+	public static List<String> prepare(SBOLDocument doc) {
 		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 		SBOLUtils.populateRegistries(doc);
 		SBOLValidate.validateSBOL(doc, false, false, false);
-		List<String> errors = SBOLValidate.getErrors();
+		return new ArrayList<String>(SBOLValidate.getErrors());
+	}
+
+	/**
+	 * Loads a doc that was already prepared, reporting its validation errors.
+	 */
+	public boolean load(SBOLDocument doc, URI rootUri, List<String> errors) throws SBOLValidationException {
 		if (!errors.isEmpty()) {
 			MessageDialog.showMessage(panel, "Beware, this file isn't following best practice", errors);
 		}
 		design = doc;
+		completeness.clear();
 
 		ComponentDefinition[] CDs = doc.getComponentDefinitions().toArray(new ComponentDefinition[0]);
 		ComponentDefinition rootCD = null;
@@ -733,6 +689,8 @@ public class SBOLDesign {
 
 		canvasCD = newRoot;
 		populateComponents(canvasCD);
+		// the canvas CD is patched once for all the loaded elements
+		updateCanvasCD(false);
 
 		detectReadOnly();
 
@@ -831,6 +789,8 @@ public class SBOLDesign {
 	 * Adds components in the order they appear in the sequence
 	 */
 	private void populateComponents(ComponentDefinition comp) throws SBOLValidationException {
+		featureHierarchy = null;
+
 		// Check if the design is completely annotated, this is true if all
 		// Components have a precise location specified by a SequenceAnnotation
 		// with a Range or Cut Location.
@@ -881,25 +841,8 @@ public class SBOLDesign {
 				}
 			}
 			if(!features.isEmpty()) {
-				ArrayList<Feature> currentlyDisplayedFeatures = new ArrayList<Feature>();
-				for(int i = 0; i < features.size(); i++) {
-					Feature f = features.get(i);
-					currentlyDisplayedFeatures.add(f);
-					for(int j = 0; j < features.size(); j++) {
-						if(features.get(j).start <= f.start && features.get(j).end >= f.end && i != j) {
-							if(features.get(j).start < f.start || features.get(j).end > f.end) {
-								setElementVisible(f.element, false);
-								currentlyDisplayedFeatures.remove(f);
-								break;
-							}
-						}
-					}
-				}
-				for(Feature f : currentlyDisplayedFeatures){
-					setElementVisible(f.element, true);
-					JLabel button = buttons.get(f.element);
-					setupIcons(button, f.element);
-				}
+				featureHierarchy = new FeatureHierarchy(features);
+				displayFeatures(null);
 			}
 			return;
 		}
@@ -968,7 +911,7 @@ public class SBOLDesign {
 		ComponentDefinition root = getRootCD();
 		for(org.sbolstandard.core2.Component c : root.getComponents())
 		{
-			if(!getAllSequences(c.getDefinition()))
+			if(completeness.getImpliedLength(c.getDefinition()) <= 0)
 				return true;
 		}
 		return false;
@@ -1086,8 +1029,6 @@ public class SBOLDesign {
 		}
 		if (!loading) {
 			fireDesignChangedEvent(updateSequences);
-		}else {
-			updateCanvasCD(updateSequences);
 		}
 	}
 	
@@ -1158,40 +1099,18 @@ public class SBOLDesign {
 
 	private void setupIcons(final JLabel button, final DesignElement e) throws SBOLValidationException {
 		final ComponentDefinition comp = e.getCD();
-		boolean hasSequence = getAllSequences(comp);
-		updateCanvasCD(false);
+		boolean hasSequence = completeness.isComplete(comp);
 		boolean composite = e.isComposite();
 		if(e.isFeature()) {
 			composite = isElementCompositeFeature(e);
 		}
-		Image image = e.getPart().getImage(e.getOrientation(), composite, e.hasVariants(design, canvasCD),
-				hasSequence);
-		Image selectedImage = Images.createBorderedImage(image, Color.LIGHT_GRAY);
+		boolean hasVariants = e.hasVariants(design, canvasCD);
+		Image image = e.getPart().getImage(e.getOrientation(), composite, hasVariants, hasSequence);
+		Image selectedImage = e.getPart().getImage(e.getOrientation(), composite, hasVariants, hasSequence, true);
 		button.setIcon(new ImageIcon(image));
 		button.setDisabledIcon(new ImageIcon(selectedImage));
 	}
 	
-	private boolean getAllSequences(final ComponentDefinition comp) {
-		if (comp==null) return true;
-		Set<org.sbolstandard.core2.Component> comps;
-		comps = comp.getComponents();
-		Iterator<org.sbolstandard.core2.Component> it = comps.iterator();
-		if(comps.size() == 0) {
-			if(comp.getSequences().size() > 0) {
-				return true;
-			}else {
-				return false;
-			}
-		}else {
-			while(it.hasNext()) {
-				if(!getAllSequences(it.next().getDefinition())) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-
 	private String getButtonText(final DesignElement e) {
 		Identified i = e.getCD() != null ? e.getCD() : e.getSeqAnn();
 
@@ -1287,7 +1206,7 @@ public class SBOLDesign {
 	}
 
 	private String getTooltipText(DesignElement e) {
-		SequenceOntology so = new SequenceOntology();
+		SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 		StringBuilder sb = new StringBuilder();
 		sb.append("<html>");
 		final ComponentDefinition comp = e.getCD();
@@ -1334,9 +1253,11 @@ public class SBOLDesign {
 				e1.printStackTrace();
 			}
 			if(!comb) {
-				if (!getAllSequences(comp) || comp.getSequenceByEncoding(Sequence.IUPAC_DNA) == null
-						|| comp.getSequenceByEncoding(Sequence.IUPAC_DNA).getElements().equals("")) {
+				int length = completeness.getImpliedLength(comp);
+				if (length <= 0) {
 					sb.append("<b>Sequence incomplete</b><br>");
+				} else {
+					sb.append("<b>Sequence length:</b> ").append(length).append("<br>");
 				}
 			}
 		} else {
@@ -1430,6 +1351,7 @@ public class SBOLDesign {
 			e = getElement(comp);
 		}
 		e.flipOrientation();
+		e.markDirty();
 
 		JLabel button = buttons.get(e);
 		setupIcons(button, e);
@@ -1524,6 +1446,9 @@ public class SBOLDesign {
 			DesignElement e = elements.get(index);
 			JLabel button = buttons.get(e);
 			e.setCD(newCD);
+			e.markDirty();
+			// newCD may be an edited version of oldCD with the same identity
+			completeness.invalidate(newCD);
 			if (!newCD.getRoles().contains(e.getPart().getRole())) {
 				Part newPart = Parts.forIdentified(newCD);
 				if (newPart == null) {
@@ -1546,6 +1471,10 @@ public class SBOLDesign {
 	}
 
 	private void fireDesignChangedEvent(boolean updateSequence) {
+		// the canvas CD's parts changed, so did whether it and its ancestors
+		// are sequenced. This can't wait for the event: updateCanvasCD already
+		// asks hasEmptySequence and refreshes the tooltips.
+		completeness.invalidate(canvasCD);
 		updateCanvasCD(updateSequence);
 		refreshUI();
 		eventBus.post(new DesignChangedEvent(this));
@@ -1784,7 +1713,7 @@ public class SBOLDesign {
 		setupIcons(button, e);
 	}
 
-	private void expandCombinatorial() throws SBOLValidationException, SBOLConversionException, FileNotFoundException {
+	private void expandCombinatorial() throws SBOLValidationException, SBOLConversionException, IOException {
 		ComponentDefinitionBox root = new ComponentDefinitionBox();
 		SBOLDocument doc = createDocument(root);
 
@@ -1802,73 +1731,20 @@ public class SBOLDesign {
 			return;
 		}
 
-		doc = CombinatorialExpansionUtil.createCombinatorialDesign((java.awt.Component)panel, doc);
+		if (!file.getName().contains(".")) {
+			file = new File(file + ".xml");
+		}
+
+		doc = CombinatorialExpansionUtil.createCombinatorialDesign((java.awt.Component)panel, doc, file);
 		
 		if (doc != null) {
 			for(ComponentDefinition c : doc.getRootComponentDefinitions()) {
-				rebuildSequences(c, doc);
-			}
-			if (!file.getName().contains(".")) {
-				file = new File(file + ".xml");
+				SBOLUtils.rebuildSequences(c, doc);
 			}
 			SBOLWriter.write(doc, new FileOutputStream(file));
 		}
 	}
 	
-	private void rebuildSequences(ComponentDefinition comp, SBOLDocument doc) throws SBOLValidationException {
-		Set<SequenceAnnotation> oldSequenceAnn = comp.getSequenceAnnotations();
-		comp.clearSequenceAnnotations();
-		Set<Sequence> currSequences = new HashSet<Sequence>();
-		int start = 1;
-		int length;
-		int count = 0;
-		String newSeq = "";
-		ComponentDefinition curr;
-		for(org.sbolstandard.core2.Component c : comp.getSortedComponents()) {
-			curr = c.getDefinition();
-			if(!curr.getComponents().isEmpty()) {
-				rebuildSequences(curr, doc);
-			}
-			length = 0;
-			//Append sequences to build newly constructed sequence
-			for(Sequence s : curr.getSequences()) {
-				currSequences.add(s);
-				newSeq = newSeq.concat(s.getElements());
-				length += s.getElements().length();
-			}
-			
-			OrientationType o = OrientationType.INLINE;
-			for(SequenceAnnotation sa : oldSequenceAnn) {
-				if(sa.getComponent().getIdentity() == c.getIdentity()) {
-					o = sa.getLocations().iterator().next().getOrientation();
-				}
-			}
-			
-			SequenceAnnotation seqAnn;
-			if (length==0) {
-				seqAnn = comp.createSequenceAnnotation("SequenceAnnotation_"+count, "GenericLocation", o);
-			} else {
-				seqAnn = comp.createSequenceAnnotation("SequenceAnnotation_"+count, "Range" , start, start+length-1, o);
-				start += length;
-			}
-			seqAnn.setComponent(c.getIdentity());
-			
-			count++;
-		}
-		if(newSeq != "") {
-			if(comp.getSequences().isEmpty())
-			{
-				String uniqueId = SBOLUtils.getUniqueDisplayId(null, null,
-						comp.getDisplayId() + "Sequence", comp.getVersion(), "Sequence", doc);
-				comp.addSequence(doc.createSequence(uniqueId, comp.getVersion(), newSeq, Sequence.IUPAC_DNA));
-			}else
-			{
-				comp.getSequences().iterator().next().setElements(newSeq);	
-			}
-		}
-		
-	}
-
 	public static void uploadDesign(Component panel, SBOLDocument uploadDoc, File uploadFile)
 			throws SynBioHubException, SBOLValidationException, URIException {
 		// create a list of registries
@@ -2121,49 +1997,76 @@ public class SBOLDesign {
 	}
 
 	/**
-	 * Updates all the seqAnns of the DesignElements in elements
+	 * Updates the seqAnns of the DesignElements in elements. Only elements that
+	 * changed or moved to a different position since the last update get their
+	 * seqAnn rebuilt, but every tooltip is refreshed since it also shows the
+	 * CD's name, roles and completeness.
 	 */
 	private void updateSequenceAnnotations() throws SBOLValidationException {
 		int position = 1;
 		for (DesignElement e : elements) {
 			if (e.getCD() == null)
 				continue;
-			Location loc = e.seqAnn.getLocations().iterator().next();
-
-			// We no longer need this seqAnn
-			canvasCD.removeSequenceAnnotation(e.seqAnn);
-
-			e.seqAnn = DesignElement.createSeqAnn(canvasCD, design);
 
-			// if a sequence exists, give seqAnn a Range
+			// if a sequence exists, the seqAnn gets a Range of its length
 			Sequence seq = e.getCD().getSequenceByEncoding(Sequence.IUPAC_DNA);
+			int length = seq == null ? -1 : seq.getElements().length();
+			int start = position;
 			if (seq != null) {
-				String uniqueId = SBOLUtils.getUniqueDisplayId(canvasCD, null, e.seqAnn.getDisplayId() + "_Range", null,
-						"Range", design);
-				int start = position;
-				int end = seq.getElements().length() + start - 1;
-				position = end + 1;
-				Range range = e.seqAnn.addRange(uniqueId, start, end, OrientationType.INLINE);
-				// remove all other locations
-				for (Location toBeRemoved : e.seqAnn.getLocations()) {
-					if (!toBeRemoved.equals(range)) {
-						e.seqAnn.removeLocation(toBeRemoved);
-					}
-				}
-			}
-			// maintain the orientation
-			if (loc.getOrientation() == OrientationType.REVERSECOMPLEMENT) {
-				e.flipOrientation();
+				position = start + length;
 			}
 
-			e.seqAnn.setComponent(e.component.getIdentity());
+			if (!e.isLaidOut(start, length)) {
+				layOut(e, seq, start, length);
+			}
 			JLabel button = buttons.get(e);
 			button.setToolTipText(getTooltipText(e));
 		}
 	}
 
+	/**
+	 * Replaces the seqAnn of e by one at start, with a Range of the given
+	 * length if e has a sequence.
+	 */
+	private void layOut(DesignElement e, Sequence seq, int start, int length) throws SBOLValidationException {
+		Location loc = e.seqAnn.getLocations().iterator().next();
+
+		// We no longer need this seqAnn
+		canvasCD.removeSequenceAnnotation(e.seqAnn);
+		for (Location removed : e.seqAnn.getLocations()) {
+			SBOLUtils.releaseDisplayId(canvasCD, e.seqAnn.getDisplayId() + "_Range", removed.getDisplayId(),
+					"Range");
+		}
+		SBOLUtils.releaseDisplayId(canvasCD, canvasCD.getDisplayId() + "_SequenceAnnotation",
+				e.seqAnn.getDisplayId(), "SequenceAnnotation");
+
+		e.seqAnn = DesignElement.createSeqAnn(canvasCD, design);
+
+		if (seq != null) {
+			String uniqueId = SBOLUtils.getUniqueDisplayId(canvasCD, null, e.seqAnn.getDisplayId() + "_Range", null,
+					"Range", design);
+			int end = length + start - 1;
+			Range range = e.seqAnn.addRange(uniqueId, start, end, OrientationType.INLINE);
+			// remove all other locations
+			for (Location toBeRemoved : e.seqAnn.getLocations()) {
+				if (!toBeRemoved.equals(range)) {
+					e.seqAnn.removeLocation(toBeRemoved);
+				}
+			}
+		}
+		// maintain the orientation
+		if (loc.getOrientation() == OrientationType.REVERSECOMPLEMENT) {
+			e.flipOrientation();
+		}
+
+		e.seqAnn.setComponent(e.component.getIdentity());
+		e.setLaidOut(start, length);
+	}
+
 	/**
 	 * Generates canvasCD's SequenceConstraints based on ordering in elements.
+	 * SequenceConstraints that still hold are kept, so only the constraints
+	 * around moved, added or removed elements are touched.
 	 */
 	private void updateSequenceConstraints() throws SBOLValidationException {
 		// only makes sense to have SCs if there are 2 or more components
@@ -2171,27 +2074,48 @@ public class SBOLDesign {
 			return;
 		}
 
-		canvasCD.clearSequenceConstraints();
-
-		// create a precedes relationship for all the elements except the last
+		// a precedes relationship for all the elements except the last
+		Set<List<URI>> precedes = new LinkedHashSet<List<URI>>();
 		for (int i = 0; i < (elements.size() - 1); i++) {
 			org.sbolstandard.core2.Component subject = elements.get(i).component;
 			org.sbolstandard.core2.Component object = elements.get((i + 1)).component;
 
 			if (subject == null || object == null)
 				continue;
+			precedes.add(Arrays.asList(subject.getIdentity(), object.getIdentity()));
+		}
+
+		// remove the SCs that don't match the ordering anymore
+		for (SequenceConstraint sc : canvasCD.getSequenceConstraints()) {
+			List<URI> pair = Arrays.asList(sc.getSubjectURI(), sc.getObjectURI());
+			if (!RestrictionType.PRECEDES.equals(sc.getRestriction()) || !precedes.remove(pair)) {
+				canvasCD.removeSequenceConstraint(sc);
+				SBOLUtils.releaseDisplayId(canvasCD, canvasCD.getDisplayId() + "_SequenceConstraint",
+						sc.getDisplayId(), "SequenceConstraint");
+			}
+		}
+
+		// create the missing ones
+		for (List<URI> pair : precedes) {
 			String uniqueId = SBOLUtils.getUniqueDisplayId(canvasCD, null,
 					canvasCD.getDisplayId() + "_SequenceConstraint", null, "SequenceConstraint", design);
-			canvasCD.createSequenceConstraint(uniqueId, RestrictionType.PRECEDES, subject.getIdentity(),
-					object.getIdentity());
+			canvasCD.createSequenceConstraint(uniqueId, RestrictionType.PRECEDES, pair.get(0), pair.get(1));
 		}
 	}
 
-	private static class DesignElement {
+	static class DesignElement {
 		private org.sbolstandard.core2.Component component;
 		private SequenceAnnotation seqAnn;
 		private Part part;
 
+		/**
+		 * The start and sequence length seqAnn was last laid out with. dirty is
+		 * true until the first layout and after the element is changed.
+		 */
+		private boolean dirty = true;
+		private int layoutStart;
+		private int layoutLength;
+
 		/**
 		 * The component we are making into a design element, the canvas CD, the CD
 		 * refered to by the component, and the part.
@@ -2259,6 +2183,24 @@ public class SBOLDesign {
 		SequenceAnnotation getSeqAnn() {
 			return seqAnn;
 		}
+
+		void markDirty() {
+			dirty = true;
+		}
+
+		/**
+		 * Returns true if seqAnn is already laid out at start with a sequence of
+		 * the given length (-1 if there is no sequence).
+		 */
+		boolean isLaidOut(int start, int length) {
+			return !dirty && layoutLength == length && (length < 0 || layoutStart == start);
+		}
+
+		void setLaidOut(int start, int length) {
+			this.layoutStart = start;
+			this.layoutLength = length;
+			this.dirty = false;
+		}
 		
 		
 		boolean isFeature() {
@@ -101,15 +101,10 @@ public class SBOLDesignerPanel extends JPanel {
 			"openFile.png") {
 		@Override
 		protected void perform() {
-			try {
-				if (documentIO != null) {
-					openDocument(new FileDocumentIO(false));
-				} else {
-					JOptionPane.showMessageDialog(null, "The current document has not yet been saved.");
-				}
-			} catch (SBOLValidationException | IOException | SBOLConversionException e) {
-				MessageDialog.showMessage(null, "There was a problem opening this design: ", e.getMessage());
-				e.printStackTrace();
+			if (documentIO != null) {
+				openDocument(new FileDocumentIO(false));
+			} else {
+				JOptionPane.showMessageDialog(null, "The current document has not yet been saved.");
 			}
 		}
 	}.precondition(CONFIRM_SAVE);
@@ -123,12 +118,7 @@ public class SBOLDesignerPanel extends JPanel {
 			if (returnVal == JFileChooser.APPROVE_OPTION) {
 				File file = fc.getSelectedFile();
 				Preferences.userRoot().node("path").put("path", file.getPath());
-				try {
-					openDocument(new FileDocumentIO(false));
-				} catch (SBOLValidationException | IOException | SBOLConversionException e) {
-					MessageDialog.showMessage(null, "There was a problem opening this document: ", e.getMessage());
-					e.printStackTrace();
-				}
+				openDocument(new FileDocumentIO(false));
 			}
 		}
 	}.precondition(CONFIRM_SAVE);
@@ -381,12 +371,11 @@ public class SBOLDesignerPanel extends JPanel {
 		}
 	}
 
-	void openDocument(DocumentIO documentIO) throws SBOLValidationException, IOException, SBOLConversionException {
-		SBOLDocument doc = documentIO.read();
-		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
-		if (editor.getDesign().load(doc, null)) {
-			setCurrentFile(documentIO);
-		}
+	/**
+	 * Loads the document in the background, errors are reported to the user.
+	 */
+	void openDocument(DocumentIO documentIO) {
+		new DocumentLoader(this, documentIO, editor.getDesign(), () -> setCurrentFile(documentIO)).start();
 	}
 
 	private void saveAs() throws IOException, Exception {
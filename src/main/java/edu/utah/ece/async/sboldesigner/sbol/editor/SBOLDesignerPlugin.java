@@ -114,7 +114,7 @@ public class SBOLDesignerPlugin extends SBOLDesignerPanel {
 
 		File file = new File(path + this.fileName);
 		Preferences.userRoot().node("path").put("path", file.getPath());
-		openDocument(new FileDocumentIO(false));
+		loadDocument(new FileDocumentIO(false));
 	}
 
 	private void saveURIprefix() {
@@ -156,7 +156,13 @@ public class SBOLDesignerPlugin extends SBOLDesignerPanel {
 		return toolbar;
 	}
 
-	void openDocument(DocumentIO documentIO) throws SBOLValidationException, IOException, SBOLConversionException {
+	/**
+	 * Loads the document before returning, unlike
+	 * SBOLDesignerPanel.openDocument, because the host expects the design to
+	 * be ready when the constructor returns.
+	 */
+	private void loadDocument(DocumentIO documentIO)
+			throws SBOLValidationException, IOException, SBOLConversionException {
 		SBOLDocument doc = documentIO.read();
 		doc.setDefaultURIprefix(URIprefix);
 
@@ -166,7 +172,9 @@ public class SBOLDesignerPlugin extends SBOLDesignerPanel {
 			doc = newDoc;
 		}
 
-		if (editor.getDesign().load(doc, rootURI)) {
+		// prepared and loaded here rather than by a DocumentLoader, so failures
+		// come out of the constructor
+		if (editor.getDesign().load(doc, rootURI, SBOLDesign.prepare(doc))) {
 			setCurrentFile(documentIO);
 		}
 	}
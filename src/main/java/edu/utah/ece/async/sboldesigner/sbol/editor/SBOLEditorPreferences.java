@@ -222,4 +222,24 @@ public enum SBOLEditorPreferences {
 		SynBioHubQuery.QUERY_LIMIT = limit;
 		this.queryLimit = limit;
 	}
+
+	// Page size for SynBioHubQuery
+	private Integer pageSize = null;
+
+	/**
+	 * default is 200, 0 fetches up to the query limit at once
+	 */
+	public Integer getPageSize() {
+		if (pageSize == null) {
+			Preferences prefs = Preferences.userNodeForPackage(SBOLEditorPreferences.class).node("settings");
+			pageSize = prefs.getInt("pageSize", 200);
+		}
+		return pageSize;
+	}
+
+	public void setPageSize(int size) {
+		Preferences prefs = Preferences.userNodeForPackage(SBOLEditorPreferences.class).node("settings");
+		prefs.putInt("pageSize", size);
+		this.pageSize = size;
+	}
 }
@@ -1,22 +1,53 @@
 package edu.utah.ece.async.sboldesigner.sbol.editor;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.TopLevel;
+import org.synbiohub.frontend.SynBioHubException;
 import org.synbiohub.frontend.SynBioHubFrontend;
 
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.SynBioHubQueryCache;
+
 /**
  * Represents the SynBioHubFrontends that the user is currently logged into.
  * This is used instead of SBOLDocument's registries map because this will
  * persist across multiple SBOLDocuments.
+ *
+ * Frontends for registries the user isn't logged into are shared too, so
+ * every search and fetch reuses the open connections of one frontend instead
+ * of connecting again. Everything here can be used from any thread.
  */
 public class SynBioHubFrontends {
-	private static HashMap<String, SynBioHubFrontend> frontends = null;
+	/**
+	 * How many requests are sent to one SynBioHub at the same time.
+	 */
+	private static final int REQUESTS_PER_HOST = 4;
+
+	private static final Map<String, SynBioHubFrontend> frontends = new ConcurrentHashMap<>();
+	private static final Map<String, SynBioHubFrontend> anonymousFrontends = new ConcurrentHashMap<>();
+	private static final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+	private static final ExecutorService FETCHERS = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "SynBioHub fetch");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	public SynBioHubFrontends() {
-		if (frontends == null) {
-			frontends = new HashMap<>();
-		}
 	}
 
 	public boolean hasFrontend(String url) {
@@ -27,15 +58,87 @@ public class SynBioHubFrontends {
 		return frontends.get(url);
 	}
 
+	/**
+	 * Returns the logged in frontend of url if there is one, or else the
+	 * shared anonymous one.
+	 */
+	public SynBioHubFrontend getFrontend(String url, String uriPrefix) {
+		SynBioHubFrontend frontend = frontends.get(url);
+		if (frontend != null) {
+			return frontend;
+		}
+		return anonymousFrontends.computeIfAbsent(url + " " + uriPrefix, k -> new SynBioHubFrontend(url, uriPrefix));
+	}
+
 	public Collection<SynBioHubFrontend> getFrontends() {
 		return frontends.values();
 	}
 
+	/**
+	 * Logging in or out changes what searches find, so cached search results
+	 * are forgotten.
+	 */
 	public void addFrontend(String url, SynBioHubFrontend frontend) {
 		frontends.put(url, frontend);
+		SynBioHubQueryCache.clear();
 	}
 
 	public SynBioHubFrontend removeFrontend(String url) {
+		SynBioHubQueryCache.clear();
 		return frontends.remove(url);
 	}
+
+	/**
+	 * Fetches the documents of all the uris from frontend at once, sending at
+	 * most REQUESTS_PER_HOST requests at the same time, and returns them in one
+	 * document. Documents already in the SynBioHubMirror aren't fetched again.
+	 */
+	public SBOLDocument getSBOL(SynBioHubFrontend frontend, Collection<URI> uris)
+			throws SynBioHubException, SBOLValidationException, IOException {
+		Semaphore permits = hostPermits.computeIfAbsent(frontend.getBackendUrl(),
+				k -> new Semaphore(REQUESTS_PER_HOST));
+		List<Future<SBOLDocument>> fetches = new ArrayList<Future<SBOLDocument>>();
+		for (URI uri : uris) {
+			fetches.add(FETCHERS.submit(() -> {
+				permits.acquire();
+				try {
+					return SynBioHubMirror.getSBOL(frontend, uri);
+				} finally {
+					permits.release();
+				}
+			}));
+		}
+
+		SBOLDocument document = new SBOLDocument();
+		try {
+			for (Future<SBOLDocument> fetch : fetches) {
+				SBOLDocument fetched = fetch.get();
+				if (fetched == null) {
+					continue;
+				}
+				// the documents of parts often share subparts
+				for (TopLevel topLevel : fetched.getTopLevels()) {
+					if (document.getTopLevel(topLevel.getIdentity()) == null) {
+						document.createCopy(topLevel);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SynBioHubException) {
+				throw (SynBioHubException) e.getCause();
+			}
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (Future<SBOLDocument> fetch : fetches) {
+				fetch.cancel(true);
+			}
+		}
+		return document;
+	}
 }
@@ -0,0 +1,234 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.sbolstandard.core2.SBOLConversionException;
+import org.sbolstandard.core2.SBOLDocument;
+import org.sbolstandard.core2.SBOLReader;
+import org.sbolstandard.core2.SBOLValidationException;
+import org.sbolstandard.core2.SBOLWriter;
+import org.synbiohub.frontend.SynBioHubException;
+import org.synbiohub.frontend.SynBioHubFrontend;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Copies of the SBOL fetched from SynBioHub kept on disk, so fetching a part
+ * again is served from disk and works offline.
+ *
+ * Documents are stored by the hash of their content under objects/, and
+ * index/ maps the hash of every fetched URI to the content it was last
+ * fetched with and when. A copy older than FRESH_MS is still served, but
+ * fetched again in the background and replaced if it changed, and content no
+ * URI is fetched with anymore is deleted.
+ *
+ * The mirror is in ~/.sboldesigner/mirror unless the system property
+ * sboldesigner.mirror names another directory. With sboldesigner.offline set
+ * to true SynBioHub is never contacted, which together with a mirror directory
+ * copied from elsewhere gives scripted runs a fixed snapshot of the parts.
+ */
+public class SynBioHubMirror {
+	private SynBioHubMirror() {
+	}
+
+	private static final long FRESH_MS = TimeUnit.HOURS.toMillis(1);
+
+	private static final File DIRECTORY = new File(System.getProperty("sboldesigner.mirror",
+			System.getProperty("user.home") + File.separator + ".sboldesigner" + File.separator + "mirror"));
+	private static final File OBJECTS = new File(DIRECTORY, "objects");
+	private static final File INDEX = new File(DIRECTORY, "index");
+
+	private static final boolean OFFLINE = Boolean.getBoolean("sboldesigner.offline");
+
+	private static final ExecutorService REVALIDATOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SynBioHub mirror");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static final Set<URI> revalidating = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Returns the document of uri from the mirror if it's there, or else
+	 * fetches it from synBioHub and keeps a copy.
+	 */
+	public static SBOLDocument getSBOL(SynBioHubFrontend synBioHub, URI uri) throws SynBioHubException, IOException {
+		Properties entry = readEntry(uri);
+		if (entry != null) {
+			SBOLDocument doc = readObject(entry.getProperty("object"));
+			if (doc != null) {
+				long fetched = Long.parseLong(entry.getProperty("fetched", "0"));
+				if (!OFFLINE && System.currentTimeMillis() - fetched > FRESH_MS && revalidating.add(uri)) {
+					REVALIDATOR.execute(() -> revalidate(synBioHub, uri));
+				}
+				return doc;
+			}
+		}
+
+		if (OFFLINE) {
+			throw new IOException(uri + " isn't in the mirror at " + DIRECTORY + " and SBOLDesigner is offline.");
+		}
+		SBOLDocument doc = synBioHub.getSBOL(uri);
+		if (doc != null) {
+			store(uri, doc);
+		}
+		return doc;
+	}
+
+	private static void revalidate(SynBioHubFrontend synBioHub, URI uri) {
+		try {
+			SBOLDocument doc = synBioHub.getSBOL(uri);
+			if (doc != null) {
+				store(uri, doc);
+			}
+		} catch (SynBioHubException | IOException e) {
+			// keep serving the copy we have
+			e.printStackTrace();
+		} finally {
+			revalidating.remove(uri);
+		}
+	}
+
+	/**
+	 * Keeps doc as the document of uri. Content that's already there isn't
+	 * written again, and content that was replaced is pruned.
+	 */
+	private static synchronized void store(URI uri, SBOLDocument doc) throws IOException {
+		byte[] content;
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			SBOLWriter.write(doc, out);
+			content = out.toByteArray();
+		} catch (SBOLConversionException e) {
+			throw new IOException(e);
+		}
+
+		String object = Hashing.sha256().hashBytes(content).toString();
+		File objectFile = new File(OBJECTS, object + ".xml");
+		if (!objectFile.exists()) {
+			write(objectFile, out -> out.write(content));
+		}
+
+		Properties previous = readEntry(uri);
+		Properties entry = new Properties();
+		entry.setProperty("uri", uri.toString());
+		entry.setProperty("object", object);
+		entry.setProperty("fetched", Long.toString(System.currentTimeMillis()));
+		write(entryFile(uri), out -> entry.store(out, null));
+
+		if (previous != null && !object.equals(previous.getProperty("object"))) {
+			prune();
+		}
+	}
+
+	/**
+	 * Deletes the objects that no index entry refers to.
+	 */
+	private static synchronized void prune() {
+		File[] entries = INDEX.listFiles((dir, name) -> name.endsWith(".properties"));
+		File[] objects = OBJECTS.listFiles((dir, name) -> name.endsWith(".xml"));
+		if (entries == null || objects == null) {
+			return;
+		}
+
+		Set<String> referenced = new HashSet<String>();
+		for (File file : entries) {
+			Properties entry = new Properties();
+			try (InputStream in = new FileInputStream(file)) {
+				entry.load(in);
+			} catch (IOException e) {
+				// an entry we can't read might refer to anything, so keep
+				// everything
+				e.printStackTrace();
+				return;
+			}
+			String object = entry.getProperty("object");
+			if (object != null) {
+				referenced.add(object + ".xml");
+			}
+		}
+
+		for (File file : objects) {
+			if (!referenced.contains(file.getName())) {
+				file.delete();
+			}
+		}
+	}
+
+	private interface Writer {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Writes file through a temporary file, so readers never see half of it.
+	 */
+	private static void write(File file, Writer writer) throws IOException {
+		file.getParentFile().mkdirs();
+		File temp = File.createTempFile("mirror", ".tmp", file.getParentFile());
+		try {
+			try (OutputStream out = new FileOutputStream(temp)) {
+				writer.write(out);
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private static File entryFile(URI uri) {
+		String name = Hashing.sha256().hashString(uri.toString(), StandardCharsets.UTF_8).toString();
+		return new File(INDEX, name + ".properties");
+	}
+
+	private static Properties readEntry(URI uri) {
+		File file = entryFile(uri);
+		if (!file.exists()) {
+			return null;
+		}
+		Properties entry = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			entry.load(in);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return uri.toString().equals(entry.getProperty("uri")) ? entry : null;
+	}
+
+	/**
+	 * Returns the document stored as object, or null if it's missing or
+	 * can't be read.
+	 */
+	private static SBOLDocument readObject(String object) {
+		if (object == null) {
+			return null;
+		}
+		File file = new File(OBJECTS, object + ".xml");
+		if (!file.exists()) {
+			return null;
+		}
+		try (InputStream in = new FileInputStream(file)) {
+			return SBOLReader.read(in);
+		} catch (SBOLValidationException | IOException | SBOLConversionException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
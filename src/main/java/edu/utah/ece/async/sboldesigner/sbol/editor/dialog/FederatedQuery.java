@@ -0,0 +1,398 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor.dialog;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLDocument;
+import org.synbiohub.frontend.IdentifiedMetadata;
+import org.synbiohub.frontend.SearchQuery;
+import org.synbiohub.frontend.SynBioHubException;
+import org.synbiohub.frontend.SynBioHubFrontend;
+
+import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils;
+import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils.Types;
+import edu.utah.ece.async.sboldesigner.sbol.editor.Part;
+import edu.utah.ece.async.sboldesigner.sbol.editor.Registry;
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
+import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.RegistryInputDialog.TableUpdater;
+
+/**
+ * Searches all the registries at once for parts. Every registry is searched
+ * on its own thread, and its results are added to the table as soon as they
+ * arrive, skipping parts an earlier registry already found. A registry that
+ * doesn't answer within its budget is given up on so it doesn't hold back the
+ * others.
+ *
+ * SynBioHub registries are asked for one page of results like a
+ * SynBioHubQuery (and share its cache), the others are searched through
+ * their PartIndex. Registries that answered with a full page are asked for
+ * their next pages through fetchMore(), all at once, as the table is
+ * scrolled.
+ */
+class FederatedQuery extends SwingWorker<Object, List<TableMetadata>> implements StreamingQuery {
+
+	private static final long REMOTE_BUDGET_MS = TimeUnit.SECONDS.toMillis(15);
+	private static final long LOCAL_BUDGET_MS = TimeUnit.SECONDS.toMillis(30);
+
+	private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "Federated search");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static FederatedQuery lastQuery = null;
+	private volatile boolean cancelled = false;
+	private volatile boolean complete = false;
+	private boolean shown = false;
+	private boolean fetching = false;
+
+	private final Map<Registry, SynBioHubFrontend> remotes;
+	private final List<Registry> locals;
+	private final SBOLDocument workingDoc;
+	private final Part part;
+	private final Types type;
+	private final String filterText;
+	private final String objectType;
+	private final TableUpdater tableUpdater;
+	/**
+	 * Names of the registries that didn't answer in time or failed.
+	 */
+	private final List<String> skipped = Collections.synchronizedList(new ArrayList<String>());
+	/**
+	 * The SynBioHub registries that may have more results.
+	 */
+	private final List<Remote> truncated = new CopyOnWriteArrayList<Remote>();
+	/**
+	 * The URIs of the rows shown so far.
+	 */
+	private final Set<String> seen = new HashSet<String>();
+
+	/**
+	 * What was fetched from a SynBioHub registry so far.
+	 */
+	private static class Remote {
+		final Registry registry;
+		final SynBioHubFrontend synBioHub;
+		final SynBioHubQueryCache.Key key;
+		final SearchQuery query;
+		final int limit;
+		final List<TableMetadata> rows;
+		int offset;
+		boolean more = true;
+
+		Remote(Registry registry, SynBioHubFrontend synBioHub, SynBioHubQueryCache.Key key, SearchQuery query,
+				List<TableMetadata> rows, int offset) {
+			this.registry = registry;
+			this.synBioHub = synBioHub;
+			this.key = key;
+			this.query = query;
+			int pageSize = SBOLEditorPreferences.INSTANCE.getPageSize();
+			this.limit = pageSize > 0 ? pageSize : SynBioHubQuery.QUERY_LIMIT;
+			this.rows = rows;
+			this.offset = offset;
+		}
+
+		/**
+		 * Fetches the page at offset, caches everything fetched so far and
+		 * returns the page. A page shorter than limit is the last one.
+		 */
+		List<TableMetadata> fetchNext() throws SynBioHubException {
+			query.setOffset(offset);
+			query.setLimit(limit);
+			List<IdentifiedMetadata> found = synBioHub.search(query);
+
+			List<TableMetadata> page = new ArrayList<TableMetadata>();
+			for (IdentifiedMetadata meta : found) {
+				page.add(new TableMetadata(meta, false, registry));
+			}
+			offset += found.size();
+			more = found.size() == limit;
+			rows.addAll(page);
+			SynBioHubQueryCache.put(key, new SynBioHubQueryCache.Result(rows, offset, !more));
+			return page;
+		}
+	}
+
+	/**
+	 * The rows a registry answered with, and how to ask it for more if it may
+	 * have more.
+	 */
+	private static class Answer {
+		final List<TableMetadata> rows;
+		final Remote more;
+
+		Answer(List<TableMetadata> rows, Remote more) {
+			this.rows = rows;
+			this.more = more;
+		}
+	}
+
+	/**
+	 * remotes are the SynBioHub registries with the frontends to search them
+	 * with, locals the other registries. part is null to search all parts.
+	 */
+	FederatedQuery(Map<Registry, SynBioHubFrontend> remotes, List<Registry> locals, SBOLDocument workingDoc,
+			Part part, Types type, String filterText, String objectType, TableUpdater tableUpdater) {
+		this.remotes = remotes;
+		this.locals = locals;
+		this.workingDoc = workingDoc;
+		this.part = part;
+		this.type = type;
+		this.filterText = filterText == null ? "" : filterText;
+		this.objectType = objectType;
+		this.tableUpdater = tableUpdater;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Asks every registry that may have more results for its next page, once
+	 * the first pages are in and no other page is on its way. Registries that
+	 * don't answer in time are given up on.
+	 */
+	@Override
+	public void fetchMore() {
+		if (complete || fetching || cancelled || !isDone()) {
+			return;
+		}
+		fetching = true;
+		POOL.execute(() -> {
+			List<Remote> remotes = new ArrayList<Remote>(truncated);
+			List<Callable<List<TableMetadata>>> tasks = new ArrayList<Callable<List<TableMetadata>>>();
+			for (Remote remote : remotes) {
+				tasks.add(() -> remote.fetchNext());
+			}
+			List<TableMetadata> rows = new ArrayList<TableMetadata>();
+			List<String> failed = new ArrayList<String>();
+			try {
+				List<Future<List<TableMetadata>>> futures = POOL.invokeAll(tasks, REMOTE_BUDGET_MS,
+						TimeUnit.MILLISECONDS);
+				for (int i = 0; i < futures.size(); i++) {
+					Remote remote = remotes.get(i);
+					try {
+						for (TableMetadata row : futures.get(i).get()) {
+							if (seen.add(row.identified.getUri())) {
+								rows.add(row);
+							}
+						}
+					} catch (ExecutionException | CancellationException e) {
+						failed.add(remote.registry.getName());
+						remote.more = false;
+					}
+				}
+			} catch (InterruptedException e) {
+				// canceled
+			}
+			truncated.removeIf(remote -> !remote.more);
+			SwingUtilities.invokeLater(() -> {
+				fetching = false;
+				complete = truncated.isEmpty();
+				if (cancelled) {
+					return;
+				}
+				tableUpdater.appendRows(rows, this);
+				if (!failed.isEmpty()) {
+					skipped.addAll(failed);
+					tableUpdater.showSkipped(skipped);
+				}
+			});
+		});
+	}
+
+	@Override
+	protected Object doInBackground() throws Exception {
+		cancelPrevious();
+
+		CompletionService<Answer> completion = new ExecutorCompletionService<Answer>(POOL);
+		Map<Future<Answer>, Registry> pending = new HashMap<Future<Answer>, Registry>();
+		Map<Future<Answer>, Long> deadlines = new HashMap<Future<Answer>, Long>();
+		long start = System.currentTimeMillis();
+		for (Map.Entry<Registry, SynBioHubFrontend> remote : remotes.entrySet()) {
+			Future<Answer> future = completion
+					.submit(() -> searchRemote(remote.getKey(), remote.getValue()));
+			pending.put(future, remote.getKey());
+			deadlines.put(future, start + REMOTE_BUDGET_MS);
+		}
+		for (Registry local : locals) {
+			Future<Answer> future = completion.submit(() -> searchLocal(local));
+			pending.put(future, local);
+			deadlines.put(future, start + LOCAL_BUDGET_MS);
+		}
+
+		try {
+			while (!pending.isEmpty() && !cancelled) {
+				long wait = Collections.min(deadlines.values()) - System.currentTimeMillis();
+				Future<Answer> future = completion.poll(Math.max(0, wait), TimeUnit.MILLISECONDS);
+				if (future == null) {
+					// give up on the registries over their budget
+					long now = System.currentTimeMillis();
+					for (Future<Answer> late : new ArrayList<Future<Answer>>(
+							pending.keySet())) {
+						if (deadlines.get(late) <= now) {
+							late.cancel(true);
+							skipped.add(pending.remove(late).getName());
+							deadlines.remove(late);
+						}
+					}
+					continue;
+				}
+
+				Registry registry = pending.remove(future);
+				deadlines.remove(future);
+				if (registry == null) {
+					// given up on already
+					continue;
+				}
+				Answer answer;
+				try {
+					answer = future.get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					skipped.add(registry.getName());
+					continue;
+				}
+				if (answer.more != null) {
+					truncated.add(answer.more);
+				}
+
+				List<TableMetadata> rows = new ArrayList<TableMetadata>();
+				for (TableMetadata row : answer.rows) {
+					if (seen.add(row.identified.getUri())) {
+						rows.add(row);
+					}
+				}
+				if (!rows.isEmpty()) {
+					publish(rows);
+				}
+			}
+		} catch (InterruptedException e) {
+			// canceled
+		} finally {
+			for (Future<Answer> future : pending.keySet()) {
+				future.cancel(true);
+			}
+		}
+
+		complete = truncated.isEmpty();
+		return null;
+	}
+
+	private Answer searchRemote(Registry registry, SynBioHubFrontend synBioHub) throws Exception {
+		Set<URI> roles = part == null ? new HashSet<URI>() : new HashSet<URI>(part.getRoles());
+		Set<URI> types = SBOLUtils.convertTypesToSet(type);
+		Set<URI> collections = new HashSet<URI>();
+
+		// the same as a SynBioHubQuery of all collections
+		SynBioHubQueryCache.Key key = new SynBioHubQueryCache.Key(registry.getLocation(), roles, types, collections,
+				objectType, false, filterText);
+		SearchQuery query = SynBioHubQuery.createQuery(roles, types, collections, filterText, objectType);
+		SynBioHubQueryCache.Result cached = SynBioHubQueryCache.get(key);
+		// a result derived from a shorter filter text is searched again
+		if (cached != null && (cached.complete || cached.offset > 0)) {
+			List<TableMetadata> rows = new ArrayList<TableMetadata>();
+			for (TableMetadata row : cached.rows) {
+				rows.add(new TableMetadata(row.identified, row.isCollection, registry));
+			}
+			Remote more = cached.complete ? null
+					: new Remote(registry, synBioHub, key, query, new ArrayList<TableMetadata>(rows), cached.offset);
+			return new Answer(rows, more);
+		}
+
+		Remote remote = new Remote(registry, synBioHub, key, query, new ArrayList<TableMetadata>(), 0);
+		List<TableMetadata> rows = remote.fetchNext();
+		return new Answer(rows, remote.more ? remote : null);
+	}
+
+	private Answer searchLocal(Registry registry) throws Exception {
+		List<TableMetadata> rows = new ArrayList<TableMetadata>();
+		SBOLDocument doc = RegistryInputDialog.readLocalDocument(registry, workingDoc);
+		if (doc == null) {
+			return new Answer(rows, null);
+		}
+
+		String filter = filterText.toLowerCase();
+		for (ComponentDefinition CD : RegistryInputDialog.findParts(doc, part, type)) {
+			IdentifiedMetadata meta = new IdentifiedMetadata();
+			meta.setUri(CD.getIdentity().toString());
+			meta.setDisplayId(CD.getDisplayId());
+			meta.setName(CD.getName());
+			meta.setVersion(CD.getVersion());
+			meta.setDescription(CD.getDescription());
+			TableMetadata row = new TableMetadata(meta, false, registry);
+			if (filter.isEmpty() || row.matches(filter)) {
+				rows.add(row);
+			}
+		}
+		return new Answer(rows, null);
+	}
+
+	private void cancelPrevious() {
+		cancelLast();
+		SynBioHubQuery.cancelLast();
+		lastQuery = this;
+	}
+
+	/**
+	 * Stops the last query from updating the table.
+	 */
+	static void cancelLast() {
+		if (lastQuery != null) {
+			lastQuery.cancelled = true;
+		}
+	}
+
+	@Override
+	protected void process(List<List<TableMetadata>> pages) {
+		if (cancelled) {
+			return;
+		}
+		for (List<TableMetadata> page : pages) {
+			if (!shown) {
+				shown = true;
+				tableUpdater.updateTable(new ArrayList<TableMetadata>(page), filterText, this);
+			} else {
+				tableUpdater.appendRows(page, this);
+			}
+		}
+	}
+
+	@Override
+	protected void done() {
+		if (cancelled) {
+			return;
+		}
+		if (!shown) {
+			shown = true;
+			tableUpdater.updateTable(new ArrayList<TableMetadata>(), filterText, this);
+		} else {
+			// updates the count now that the query is complete
+			tableUpdater.appendRows(new ArrayList<TableMetadata>(), this);
+		}
+		if (!skipped.isEmpty()) {
+			tableUpdater.showSkipped(skipped);
+		}
+	}
+}
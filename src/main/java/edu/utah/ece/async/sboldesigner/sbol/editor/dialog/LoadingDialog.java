@@ -4,20 +4,46 @@ import java.awt.BorderLayout;
 import java.awt.Component;
 import java.io.IOException;
 
+import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
+import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
 
 public class LoadingDialog {
 
 	private JDialog dialog;
+	private JLabel message;
 
 	public LoadingDialog(Component parent) throws IOException {
+		this(parent, null);
+	}
+
+	/**
+	 * Creates a loading indicator with a progress message and, if onCancel
+	 * isn't null, a Cancel button that runs onCancel and closes the dialog.
+	 */
+	public LoadingDialog(Component parent, Runnable onCancel) throws IOException {
 		// Starts a progress loading indicator
 		dialog = new JDialog();
 		ImageIcon loading = new ImageIcon(getClass().getResource("/images/loading.gif"));
 		JLabel label = new JLabel(loading);
 		dialog.add(label, BorderLayout.CENTER);
+		if (onCancel != null) {
+			message = new JLabel(" ", SwingConstants.CENTER);
+			JButton cancel = new JButton("Cancel");
+			cancel.addActionListener(e -> {
+				onCancel.run();
+				stop();
+			});
+			JPanel south = new JPanel(new BorderLayout(5, 5));
+			south.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+			south.add(message, BorderLayout.CENTER);
+			south.add(cancel, BorderLayout.SOUTH);
+			dialog.add(south, BorderLayout.SOUTH);
+		}
 		dialog.setUndecorated(true);
 		dialog.setAlwaysOnTop(true);
 		dialog.pack();
@@ -28,6 +54,17 @@ public class LoadingDialog {
 		dialog.setVisible(true);
 	}
 
+	/**
+	 * Shows what is being done, if the dialog was created with a Cancel
+	 * button.
+	 */
+	public void setMessage(String text) {
+		if (message != null) {
+			message.setText(text);
+			dialog.pack();
+		}
+	}
+
 	public void stop() {
 		dialog.setVisible(false);
 		dialog.dispose();
@@ -61,7 +61,6 @@ import org.sbolstandard.core2.SBOLDocument;
 import org.sbolstandard.core2.SBOLValidationException;
 import org.sbolstandard.core2.Sequence;
 import org.sbolstandard.core2.SequenceAnnotation;
-import org.sbolstandard.core2.SequenceOntology;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
@@ -69,6 +68,7 @@ import com.google.common.collect.Iterables;
 import edu.utah.ece.async.sboldesigner.sbol.CharSequenceUtil;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils.Types;
+import edu.utah.ece.async.sboldesigner.sbol.SequenceOntologyIndex;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Part;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Parts;
 import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
@@ -212,7 +212,7 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 		updateRoleRefinement();
 		List<URI> refinementRoles = SBOLUtils.getRefinementRoles(CD, selectedPart);
 		if (!refinementRoles.isEmpty()) {
-			SequenceOntology so = new SequenceOntology();
+			SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 			roleRefinement.setSelectedItem(so.getName(refinementRoles.get(0)));
 		} else {
 			roleRefinement.setSelectedItem("None");
@@ -364,7 +364,7 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 		updateRoleRefinement();
 		List<URI> refinementRoles = SBOLUtils.getRefinementRoles(SA, selectedPart);
 		if (!refinementRoles.isEmpty()) {
-			SequenceOntology so = new SequenceOntology();
+			SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 			roleRefinement.setSelectedItem(so.getName(refinementRoles.get(0)));
 		} else {
 			roleRefinement.setSelectedItem("None");
@@ -617,7 +617,7 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 	private boolean importFromRegistryHandler() throws Exception {
 		Part part = roleSelection.getSelectedItem().equals("None") ? PartInputDialog.ALL_PARTS
 				: (Part) roleSelection.getSelectedItem();
-		URI role = new SequenceOntology().getURIbyName((String) roleRefinement.getSelectedItem());
+		URI role = SequenceOntologyIndex.INSTANCE.getURIbyName((String) roleRefinement.getSelectedItem());
 		Types type = (Types) typeSelection.getSelectedItem();
 
 		// User selects the CD
@@ -712,7 +712,7 @@ public class PartEditDialog extends JDialog implements ActionListener, DocumentL
 			Set<URI> setRoles = new HashSet<URI>(part.getRoles());
 			// use the role from roleRefinement if not "None"
 			if (!roleRefinement.getSelectedItem().equals("None")) {
-				SequenceOntology so = new SequenceOntology();
+				SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 				setRoles.clear();
 				URI roleURI = so.getURIbyName((String) roleRefinement.getSelectedItem());
 				if (!so.isDescendantOf(roleURI, part.getRole())) {
@@ -21,24 +21,30 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.PatternSyntaxException;
 
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
@@ -46,11 +52,11 @@ import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
+import org.sbolstandard.core2.Collection;
 import org.sbolstandard.core2.ComponentDefinition;
+import org.sbolstandard.core2.SBOLConversionException;
 import org.sbolstandard.core2.SBOLDocument;
-import org.sbolstandard.core2.SBOLReader;
 import org.sbolstandard.core2.SBOLValidationException;
-import org.sbolstandard.core2.SequenceOntology;
 import org.sbolstandard.core2.TopLevel;
 import org.synbiohub.frontend.IdentifiedMetadata;
 import org.synbiohub.frontend.SynBioHubException;
@@ -61,14 +67,18 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
 import edu.utah.ece.async.sboldesigner.sbol.CharSequenceUtil;
+import edu.utah.ece.async.sboldesigner.sbol.DocumentCache;
+import edu.utah.ece.async.sboldesigner.sbol.PartIndex;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils;
 import edu.utah.ece.async.sboldesigner.sbol.SBOLUtils.Types;
+import edu.utah.ece.async.sboldesigner.sbol.SequenceOntologyIndex;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Part;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Parts;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Registries;
 import edu.utah.ece.async.sboldesigner.sbol.editor.Registry;
 import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
 import edu.utah.ece.async.sboldesigner.sbol.editor.SynBioHubFrontends;
+import edu.utah.ece.async.sboldesigner.sbol.editor.SynBioHubMirror;
 import edu.utah.ece.async.sboldesigner.swing.ComboBoxRenderer;
 import edu.utah.ece.async.sboldesigner.swing.FormBuilder;
 
@@ -155,10 +165,17 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 	final JTextField filterSelection = new JTextField();
 	/*
 	 * Determines whether the table should be refreshed when a user types in
-	 * filter text. This is true when the results from SynBioHubQuery exceeds
-	 * the QUERY_LIMIT.
+	 * filter text. This is true when SynBioHubQuery didn't fetch all the
+	 * results.
 	 */
 	private boolean refreshSearch = false;
+	/*
+	 * The query whose results are in the table, which fetches more pages as
+	 * the table is scrolled down.
+	 */
+	private StreamingQuery currentQuery = null;
+
+	private JCheckBox searchAllRegistries;
 	/*
 	 * Stores the filter text that caused the current ArrayList<TableMetadata>.
 	 */
@@ -257,6 +274,19 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 
 	@Override
 	public void initFormPanel(FormBuilder builder) {
+		// set up federated search
+		searchAllRegistries = new JCheckBox("Search all registries");
+		searchAllRegistries.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				collectionSelection.setEnabled(isMetadata() && !isFederated());
+				updateTable();
+			}
+		});
+		if (objectType == "ComponentDefinition") {
+			builder.add("", searchAllRegistries);
+		}
+
 		// set up type selection
 		typeSelection = new JComboBox<Types>(Types.values());
 		typeSelection.setSelectedItem(type);
@@ -301,7 +331,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 		updateRoleRefinement();
 		roleRefinement.removeActionListener(roleRefinementListener);
 		if (refinementRole != null && refinementRole != part.getRole()) {
-			String roleName = new SequenceOntology().getName(refinementRole);
+			String roleName = SequenceOntologyIndex.INSTANCE.getName(refinementRole);
 			if (!comboBoxContains(roleRefinement, roleName)) {
 				roleRefinement.addItem(roleName);
 			}
@@ -339,8 +369,12 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 				 * System.out.println("filter: " + filterSelection.getText());
 				 */
 				if ((refreshSearch || filterSelection.getText().equals("")
-						|| !filterSelection.getText().contains(cacheKey)) && isMetadata()) {
-					searchParts(part, synBioHub, filterSelection.getText());
+						|| !filterSelection.getText().contains(cacheKey)) && showsMetadata()) {
+					if (isFederated()) {
+						searchFederated(part, filterSelection.getText());
+					} else {
+						searchParts(part, synBioHub, filterSelection.getText());
+					}
 				} else {
 					updateFilter(filterSelection.getText());
 				}
@@ -371,7 +405,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			if (roleName == null || roleName.equals("None")) {
 				part = (Part) roleSelection.getSelectedItem();
 			} else {
-				SequenceOntology so = new SequenceOntology();
+				SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 				URI role = so.getURIbyName(roleName);
 				part = new Part(role, null, null);
 			}
@@ -396,18 +430,114 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 		table = (JTable) panel.getClientProperty("table");
 		tableLabel = (JLabel) panel.getClientProperty("label");
 		scroller = (JScrollPane) panel.getClientProperty("scroller");
+		scroller.getVerticalScrollBar().addAdjustmentListener(e -> fetchMoreIfNeeded());
 
 		return panel;
 	}
 
+	/**
+	 * Asks the current query for the next page once the table is scrolled
+	 * within a screen of its end, or doesn't fill the screen.
+	 */
+	private void fetchMoreIfNeeded() {
+		if (currentQuery == null || currentQuery.isComplete() || !showsMetadata()) {
+			return;
+		}
+		JScrollBar bar = scroller.getVerticalScrollBar();
+		if (bar.getValue() + 2 * bar.getVisibleAmount() >= bar.getMaximum()) {
+			currentQuery.fetchMore();
+		}
+	}
+
 	/**
 	 * Checks to see if the registry we are working on is represented by
 	 * IdentifiedMetadata.
 	 */
 	private boolean isMetadata() {
+		return isRemote(location);
+	}
+
+	private static boolean isRemote(String location) {
 		return location.startsWith("http://") || location.startsWith("https://");
 	}
 
+	/**
+	 * Returns whether the table shows the results of a search across all the
+	 * registries.
+	 */
+	private boolean isFederated() {
+		return searchAllRegistries != null && searchAllRegistries.isSelected();
+	}
+
+	/**
+	 * Returns whether the table shows TableMetadata, as found by SynBioHub
+	 * and federated searches.
+	 */
+	private boolean showsMetadata() {
+		return isMetadata() || isFederated();
+	}
+
+	/**
+	 * Returns the document of a registry that isn't SynBioHub, or null if it's
+	 * the working document and that can't be found. Parsed documents are
+	 * cached, so changing filters doesn't read the library again.
+	 */
+	static SBOLDocument readLocalDocument(Registry registry, SBOLDocument workingDoc)
+			throws SBOLValidationException, IOException, SBOLConversionException {
+		SBOLDocument doc;
+		if (registry.equals(Registry.BUILT_IN)) {
+			// read from BuiltInParts.xml
+			doc = DocumentCache.readResource("/BuiltInParts.xml");
+
+		} else if (registry.equals(Registry.WORKING_DOCUMENT)) {
+			if (workingDoc != null) {
+				// workingDoc is specified, so use that
+				doc = workingDoc;
+			} else {
+				// read from SBOLUtils.setupFile();
+				File file = SBOLUtils.setupFile();
+
+				if (file.exists()) {
+					doc = DocumentCache.read(file);
+				} else {
+					// JOptionPane.showMessageDialog(null, "The working
+					// document could not be found on disk. Try opening the
+					// file again.");
+					return null;
+				}
+			}
+
+		} else {
+			// read from the location (path)
+			doc = DocumentCache.read(new File(registry.getLocation()));
+		}
+
+		doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
+		return doc;
+	}
+
+	/**
+	 * Returns the CDs in doc matching the role of part (or all of them if part
+	 * is null) and type.
+	 */
+	static List<ComponentDefinition> findParts(SBOLDocument doc, Part part, Types type) {
+		// libraries from the cache don't change, so they can be queried
+		// through an index instead of scanning every CD
+		PartIndex index = DocumentCache.index(doc);
+		if (index == null) {
+			return SBOLUtils.getCDOfType(SBOLUtils.getCDOfRole(doc, part), type);
+		}
+		URI role = null;
+		if (part != null && part.getRoles() != null && !part.getRoles().isEmpty()) {
+			role = part.getRole();
+			if (role == null) {
+				return new ArrayList<ComponentDefinition>();
+			}
+		}
+		URI typeURI = type == Types.All_types ? null : SBOLUtils.convertTypesToSet(type).iterator().next();
+		return new ArrayList<ComponentDefinition>(index.query(role, typeURI, null));
+	}
+
 	private List<TopLevel> searchForPotentialVariants(Part part) {
 		try {
 			if (isMetadata()) {
@@ -418,39 +548,10 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 				part = null;
 			}
 
-			SBOLReader.setURIPrefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
-			SBOLReader.setCompliant(true);
-			SBOLDocument doc;
-			Registry registry = (Registry) registrySelection.getSelectedItem();
-
-			if (registry.equals(Registry.BUILT_IN)) {
-				// read from BuiltInParts.xml
-				doc = SBOLReader.read(Registry.class.getResourceAsStream("/BuiltInParts.xml"));
-
-			} else if (registry.equals(Registry.WORKING_DOCUMENT)) {
-				if (workingDoc != null) {
-					// workingDoc is specified, so use that
-					doc = workingDoc;
-				} else {
-					// read from SBOLUtils.setupFile();
-					File file = SBOLUtils.setupFile();
-
-					if (file.exists()) {
-						doc = SBOLReader.read(file);
-					} else {
-						// JOptionPane.showMessageDialog(null, "The working
-						// document could not be found on disk. Try opening the
-						// file again.");
-						return new ArrayList<TopLevel>();
-					}
-				}
-
-			} else {
-				// read from the location (path)
-				doc = SBOLReader.read(location);
+			SBOLDocument doc = readLocalDocument((Registry) registrySelection.getSelectedItem(), workingDoc);
+			if (doc == null) {
+				return new ArrayList<TopLevel>();
 			}
-
-			doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
 			return SBOLUtils.getCDCollectionsAndComboDerv(doc, part);
 
 		} catch (Exception e) {
@@ -468,6 +569,14 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 	 * CDs.
 	 */
 	private List<ComponentDefinition> searchParts(Part part) {
+		return searchParts(part, Types.All_types);
+	}
+
+	/**
+	 * Gets the SBOLDocument from the path (file on disk) and returns its CDs
+	 * matching the role of part and type.
+	 */
+	private List<ComponentDefinition> searchParts(Part part, Types type) {
 		try {
 			if (isMetadata()) {
 				throw new Exception("Incorrect state.  url isn't a path");
@@ -477,40 +586,11 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 				part = null;
 			}
 
-			SBOLReader.setURIPrefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
-			SBOLReader.setCompliant(true);
-			SBOLDocument doc;
-			Registry registry = (Registry) registrySelection.getSelectedItem();
-
-			if (registry.equals(Registry.BUILT_IN)) {
-				// read from BuiltInParts.xml
-				doc = SBOLReader.read(Registry.class.getResourceAsStream("/BuiltInParts.xml"));
-
-			} else if (registry.equals(Registry.WORKING_DOCUMENT)) {
-				if (workingDoc != null) {
-					// workingDoc is specified, so use that
-					doc = workingDoc;
-				} else {
-					// read from SBOLUtils.setupFile();
-					File file = SBOLUtils.setupFile();
-
-					if (file.exists()) {
-						doc = SBOLReader.read(file);
-					} else {
-						// JOptionPane.showMessageDialog(null, "The working
-						// document could not be found on disk. Try opening the
-						// file again.");
-						return new ArrayList<ComponentDefinition>();
-					}
-				}
-
-			} else {
-				// read from the location (path)
-				doc = SBOLReader.read(location);
+			SBOLDocument doc = readLocalDocument((Registry) registrySelection.getSelectedItem(), workingDoc);
+			if (doc == null) {
+				return new ArrayList<ComponentDefinition>();
 			}
-
-			doc.setDefaultURIprefix(SBOLEditorPreferences.INSTANCE.getUserInfo().getURI().toString());
-			return SBOLUtils.getCDOfRole(doc, part);
+			return findParts(doc, part, type);
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -550,8 +630,8 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 				String type = objectType;
 				if(type == "Variant")
 					type = "ComponentDefinition";
-				SynBioHubQuery query = new SynBioHubQuery(synbiohub, setRoles, setTypes, setCollections, filterText,
-						type, new TableUpdater(), this);
+				SynBioHubQuery query = new SynBioHubQuery(synbiohub, location, setRoles, setTypes, setCollections,
+						filterText, type, new TableUpdater(), this);
 				// non-blocking: will update using the TableUpdater
 				query.execute();
 			}
@@ -566,11 +646,33 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 		}
 	}
 	
+	/**
+	 * Searches all the registries at once for parts matching the role(s) of
+	 * part, the selected type and filterText. Results are added to the table as
+	 * they arrive.
+	 */
+	private void searchFederated(Part part, String filterText) {
+		Map<Registry, SynBioHubFrontend> remotes = new LinkedHashMap<Registry, SynBioHubFrontend>();
+		List<Registry> locals = new ArrayList<Registry>();
+		// createSynBioHubFrontend may change the registries
+		for (Registry registry : Lists.newArrayList(Registries.get())) {
+			if (isRemote(registry.getLocation())) {
+				remotes.put(registry, createSynBioHubFrontend(registry.getLocation(), registry.getUriPrefix()));
+			} else {
+				locals.add(registry);
+			}
+		}
+		tableLabel.setText("Searching all registries...");
+		// non-blocking: will update using the TableUpdater
+		new FederatedQuery(remotes, locals, workingDoc, part, (Types) typeSelection.getSelectedItem(), filterText,
+				objectType, new TableUpdater()).execute();
+	}
+
 	public URI getSelectedURI() {
 		TopLevel comp = null;
 		int row = table.convertRowIndexToModel(table.getSelectedRow());
 
-		if (isMetadata()) {
+		if (showsMetadata()) {
 			TableMetadata compMeta = ((TableMetadataTableModel) table.getModel()).getElement(row);
 			return URI.create(compMeta.identified.getUri());
 		} else {
@@ -586,7 +688,41 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			TopLevel comp = null;
 			int row = table.convertRowIndexToModel(table.getSelectedRow());
 
-			if (isMetadata()) {
+			TableMetadata federatedMeta = null;
+			if (showsMetadata()) {
+				TableMetadata compMeta = ((TableMetadataTableModel) table.getModel()).getElement(row);
+				if (compMeta.registry != null) {
+					federatedMeta = compMeta;
+				}
+			}
+
+			if (federatedMeta != null) {
+				// found by a FederatedQuery, so get it from the registry it was
+				// found in
+				Registry registry = federatedMeta.registry;
+				URI uri = URI.create(federatedMeta.identified.getUri());
+				if (isRemote(registry.getLocation())) {
+					document = SynBioHubMirror.getSBOL(
+							createSynBioHubFrontend(registry.getLocation(), registry.getUriPrefix()), uri);
+					comp = document.getComponentDefinition(uri);
+					if (comp == null) {
+						for (ComponentDefinition cd : document.getRootComponentDefinitions()) {
+							comp = cd;
+						}
+					}
+				} else {
+					SBOLDocument library = readLocalDocument(registry, workingDoc);
+					comp = library == null ? null : library.getComponentDefinition(uri);
+					if (comp == null) {
+						// the library changed or is gone since it was searched
+						MessageDialog.showMessage(null, "Getting this selection failed: ",
+								uri + " is no longer in " + registry.getName());
+						return null;
+					}
+					document = new SBOLDocument();
+					document = document.createRecursiveCopy(comp);
+				}
+			} else if (isMetadata()) {
 				TableMetadata compMeta = ((TableMetadataTableModel) table.getModel()).getElement(row);
 
 				if (synBioHub == null) {
@@ -600,7 +736,8 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 						JOptionPane.showMessageDialog(getParent(), "Selecting collections is not allowed");
 						return new SBOLDocument();
 					}else {
-						document = synBioHub.getSBOL(URI.create(compMeta.identified.getUri()));
+						document = SynBioHubMirror.getSBOL(synBioHub, URI.create(compMeta.identified.getUri()));
+						addMissingMembers(document);
 						return document;
 					}
 					
@@ -616,7 +753,8 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 					    }
 					}
 				}
-				document = synBioHub.getSBOL(URI.create(compMeta.identified.getUri()));
+				// parts fetched before are read from the mirror
+				document = SynBioHubMirror.getSBOL(synBioHub, URI.create(compMeta.identified.getUri()));
 				comp = document.getComponentDefinition(URI.create(compMeta.identified.getUri()));
 
 				if (comp == null) {
@@ -637,13 +775,39 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			}
 
 			return document;
-		} catch (SBOLValidationException | SynBioHubException e) {
+		} catch (SBOLValidationException | SynBioHubException | IOException | SBOLConversionException e) {
 			e.printStackTrace();
 			MessageDialog.showMessage(null, "Getting this selection failed: ", e.getMessage());
 			return null;
 		}
 	}
 
+	/**
+	 * Fetches the members of the collections in document that SynBioHub
+	 * didn't include, all at once.
+	 */
+	private void addMissingMembers(SBOLDocument document)
+			throws SynBioHubException, SBOLValidationException, IOException {
+		Set<URI> missing = new HashSet<URI>();
+		for (Collection collection : document.getCollections()) {
+			for (URI member : collection.getMemberURIs()) {
+				if (document.getTopLevel(member) == null) {
+					missing.add(member);
+				}
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		SBOLDocument members = new SynBioHubFrontends().getSBOL(synBioHub, missing);
+		for (TopLevel topLevel : members.getTopLevels()) {
+			if (document.getTopLevel(topLevel.getIdentity()) == null) {
+				document.createCopy(topLevel);
+			}
+		}
+	}
+
 	@Override
 	protected void registryChanged() {
 		if (isMetadata()) {
@@ -655,7 +819,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 	}
 
 	private void updateCollectionSelection(boolean registryChanged, IdentifiedMetadata newCollection) {
-		collectionSelection.setEnabled(isMetadata());
+		collectionSelection.setEnabled(isMetadata() && !isFederated());
 		if (!isMetadata()) {
 			return;
 		}
@@ -737,7 +901,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			if (roleName == null || roleName.equals("None")) {
 				part = (Part) roleSelection.getSelectedItem();
 			} else {
-				SequenceOntology so = new SequenceOntology();
+				SequenceOntologyIndex so = SequenceOntologyIndex.INSTANCE;
 				URI role = so.getURIbyName(roleName);
 				part = new Part(role, null, null);
 			}
@@ -745,7 +909,9 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			part = ALL_PARTS;
 		}
 
-		if (isMetadata()) {
+		if (isFederated()) {
+			searchFederated(part, filterSelection.getText());
+		} else if (isMetadata()) {
 			searchParts(part, synBioHub, filterSelection.getText());
 		} else if(objectType == "Variant"){
 			List<TopLevel> topLevels = searchForPotentialVariants(part);
@@ -758,8 +924,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			table.setRowSorter(sorter);
 			setWidthAsPercentages(table, tableModel.getWidths());
 		}else {
-			List<ComponentDefinition> components = searchParts(part);
-			components = SBOLUtils.getCDOfType(components, (Types) typeSelection.getSelectedItem());
+			List<ComponentDefinition> components = searchParts(part, (Types) typeSelection.getSelectedItem());
 			ComponentDefinitionTableModel tableModel = new ComponentDefinitionTableModel(components);
 			table = new JTable(tableModel);
 			tableLabel.setText("Matching parts (" + components.size() + ")");
@@ -804,7 +969,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 
 	private void updateFilter(String filterText) {
 		filterText = "(?i)" + filterText;
-		if (isMetadata()) {
+		if (showsMetadata()) {
 			TableRowSorter<TableMetadataTableModel> sorter = (TableRowSorter) table.getRowSorter();
 			if (filterText.length() == 0) {
 				sorter.setRowFilter(null);
@@ -838,20 +1003,16 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 	 * SBOLStackQuery thread update the table.
 	 */
 	public class TableUpdater {
-		public void updateTable(ArrayList<TableMetadata> identified, String filterText) {
+		public void updateTable(ArrayList<TableMetadata> identified, String filterText, StreamingQuery query) {
 			if (!filterSelection.getText().equals(filterText)) {
 				// don't update if the filterSelection text has changed.
 				return;
 			}
 
+			currentQuery = query;
 			TableMetadataTableModel tableModel = new TableMetadataTableModel(identified);
 			table = new JTable(tableModel);
-			tableLabel.setText("Matching parts (" + identified.size() + ")");
-
-			refreshSearch = identified.size() >= SynBioHubQuery.QUERY_LIMIT;
-			if (filterText != null && !refreshSearch) {
-				cacheKey = filterText;
-			}
+			updateCount(identified.size());
 			/*
 			 * System.out.println(); System.out.println("TableUpdater");
 			 * System.out.println("refreshSearch: " + refreshSearch);
@@ -880,6 +1041,40 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			});
 
 			scroller.setViewportView(table);
+			// the first page may not fill the screen
+			SwingUtilities.invokeLater(() -> fetchMoreIfNeeded());
+		}
+
+		/**
+		 * Appends a further page of results of query, if the table still shows
+		 * the results of query.
+		 */
+		public void appendRows(List<TableMetadata> rows, StreamingQuery query) {
+			if (query != currentQuery || !(table.getModel() instanceof TableMetadataTableModel)) {
+				return;
+			}
+			((TableMetadataTableModel) table.getModel()).addElements(rows);
+			if (table.getRowSorter() != null) {
+				updateCount(table.getRowSorter().getViewRowCount());
+			} else {
+				updateCount(table.getModel().getRowCount());
+			}
+			SwingUtilities.invokeLater(() -> fetchMoreIfNeeded());
+		}
+
+		/**
+		 * Notes the registries a FederatedQuery gave up on.
+		 */
+		public void showSkipped(List<String> registries) {
+			tableLabel.setText(tableLabel.getText() + " - no answer from " + String.join(", ", registries));
+		}
+
+		private void updateCount(int count) {
+			refreshSearch = !currentQuery.isComplete();
+			tableLabel.setText("Matching parts (" + count + (refreshSearch ? "+" : "") + ")");
+			if (filterSelection.getText() != null && !refreshSearch) {
+				cacheKey = filterSelection.getText();
+			}
 		}
 	}
 
@@ -906,12 +1101,7 @@ public class RegistryInputDialog extends InputDialog<SBOLDocument> {
 			Registries.get().save();
 		}
 
-		// get logged in SynBioHubFrontend if possible
-		SynBioHubFrontends frontends = new SynBioHubFrontends();
-		if (frontends.hasFrontend(location)) {
-			return frontends.getFrontend(location);
-		}
-
-		return new SynBioHubFrontend(location, uriPrefix);
+		// get logged in SynBioHubFrontend if possible, or else the shared one
+		return new SynBioHubFrontends().getFrontend(location, uriPrefix);
 	}
 }
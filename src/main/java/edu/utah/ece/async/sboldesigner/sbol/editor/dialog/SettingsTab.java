@@ -48,6 +48,8 @@ public enum SettingsTab implements PreferencesTab {
 			SBOLEditorPreferences.INSTANCE.getCDSBehavior() == 1);
 	
 	private JTextField queryLimit = new JTextField(SBOLEditorPreferences.INSTANCE.getQueryLimit().toString());
+
+	private JTextField pageSize = new JTextField(SBOLEditorPreferences.INSTANCE.getPageSize().toString());
 	
 	@Override
 	public String getTitle() {
@@ -96,6 +98,9 @@ public enum SettingsTab implements PreferencesTab {
 		arrowOrDefaultGroup.add(arrowCDS);
 		
 		JLabel queryLimitLabel = new JLabel("<html>Set the query limit. Default & max is 10,000.</html>");
+
+		JLabel pageSizeLabel = new JLabel(
+				"<html>Set the search page size. More pages are fetched as you scroll. Default is 200, 0 fetches up to the query limit at once.</html>");
 		
 		FormBuilder builder = new FormBuilder();
 		builder.add("", impliedSequence);
@@ -117,6 +122,8 @@ public enum SettingsTab implements PreferencesTab {
 		builder.add("", arrowCDS);
 		builder.add("", queryLimitLabel);
 		builder.add("", queryLimit);
+		builder.add("", pageSizeLabel);
+		builder.add("", pageSize);
 
 		return builder.build();
 	}
@@ -169,6 +176,15 @@ public enum SettingsTab implements PreferencesTab {
 			this.queryLimit.setText("10000");
 		}
 		SynBioHubQuery.QUERY_LIMIT = SBOLEditorPreferences.INSTANCE.getQueryLimit();
+
+		int pSize = Integer.parseInt(this.pageSize.getText());
+		if (pSize >= 0 && pSize <= 10000) {
+			SBOLEditorPreferences.INSTANCE.setPageSize(pSize);
+			this.pageSize.setText(String.valueOf(pSize));
+		} else {
+			SBOLEditorPreferences.INSTANCE.setPageSize(200);
+			this.pageSize.setText("200");
+		}
 		
 		int arrowOrDefault = 0;
 		if (defaultCDS.isSelected()) {
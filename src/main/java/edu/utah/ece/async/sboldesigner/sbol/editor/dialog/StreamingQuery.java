@@ -0,0 +1,17 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor.dialog;
+
+/**
+ * A query whose results are added to the table as they arrive.
+ */
+interface StreamingQuery {
+	/**
+	 * Returns whether every result has arrived.
+	 */
+	boolean isComplete();
+
+	/**
+	 * Asks for more results once the table is scrolled near its end. Must be
+	 * called on the EDT.
+	 */
+	void fetchMore();
+}
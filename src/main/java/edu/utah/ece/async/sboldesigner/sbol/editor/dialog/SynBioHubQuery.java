@@ -7,7 +7,10 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 
 import org.synbiohub.frontend.IdentifiedMetadata;
@@ -16,13 +19,33 @@ import org.synbiohub.frontend.SearchQuery;
 import org.synbiohub.frontend.SynBioHubException;
 import org.synbiohub.frontend.SynBioHubFrontend;
 
+import edu.utah.ece.async.sboldesigner.sbol.editor.SBOLEditorPreferences;
 import edu.utah.ece.async.sboldesigner.sbol.editor.dialog.RegistryInputDialog.TableUpdater;
 
-public class SynBioHubQuery extends SwingWorker<Object, Object> {
+/**
+ * Searches SynBioHub in the background. With a page size set in the
+ * preferences, results are fetched a page at a time: the worker fetches the
+ * first page and finishes, and every further page is only fetched, as a task
+ * of its own, when the table asks for it through fetchMore(). Nothing waits
+ * for the table in between. Without a page size, up to QUERY_LIMIT results
+ * are fetched in one request.
+ */
+public class SynBioHubQuery extends SwingWorker<Object, List<TableMetadata>> implements StreamingQuery {
 
 	public static int QUERY_LIMIT = 10000;
+
+	/**
+	 * Fetches the pages after the first, so they don't take SwingWorker's
+	 * threads.
+	 */
+	private static final ExecutorService PAGES = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "SynBioHub search");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	static SynBioHubQuery lastQuery = null;
-	private boolean cancelled = false;
+	private volatile boolean cancelled = false;
 
 	SynBioHubFrontend synBioHub;
 	Set<URI> roles;
@@ -34,9 +57,32 @@ public class SynBioHubQuery extends SwingWorker<Object, Object> {
 	LoadingDialog loading;
 	String objectType;
 	Boolean isRoot;
+	private final int pageSize;
+	/**
+	 * Whether every result was fetched. Once false at the end of a query, the
+	 * table only shows a prefix of the results.
+	 */
+	private volatile boolean complete = false;
+	private boolean shown = false;
+	private boolean fetching = false;
+	private final SynBioHubQueryCache.Key key;
+	private SearchQuery query;
+	/**
+	 * Where the next page starts.
+	 */
+	private int offset = 0;
+	/**
+	 * Everything fetched so far, which is what gets cached.
+	 */
+	private final List<TableMetadata> fetched = new ArrayList<TableMetadata>();
+	private final Set<String> seen = new HashSet<String>();
 
-	public SynBioHubQuery(SynBioHubFrontend synbiohub, Set<URI> roles, Set<URI> types, Set<URI> collections,
-			String filterText, String objectType, TableUpdater tableUpdater, Component parent) throws IOException {
+	/**
+	 * location is the registry's location, which keys the cached results.
+	 */
+	public SynBioHubQuery(SynBioHubFrontend synbiohub, String location, Set<URI> roles, Set<URI> types,
+			Set<URI> collections, String filterText, String objectType, TableUpdater tableUpdater, Component parent)
+			throws IOException {
 		this.synBioHub = synbiohub;
 		this.roles = roles;
 		this.types = types;
@@ -58,24 +104,81 @@ public class SynBioHubQuery extends SwingWorker<Object, Object> {
 		this.tableUpdater = tableUpdater;
 		this.loading = new LoadingDialog(parent);
 		this.identified = new ArrayList<TableMetadata>();
+		this.pageSize = SBOLEditorPreferences.INSTANCE.getPageSize();
+		this.key = new SynBioHubQueryCache.Key(location, roles, types, this.collections, objectType, isRoot,
+				filterText);
 	}
 
 	@Override
-	protected ArrayList<TableMetadata> doInBackground() throws Exception {
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Fetches the next page of results, unless every result was fetched, a
+	 * page is on its way or the first one isn't there yet.
+	 */
+	@Override
+	public void fetchMore() {
+		if (pageSize <= 0 || complete || fetching || !shown || cancelled || !isDone()) {
+			return;
+		}
+		fetching = true;
+		PAGES.execute(() -> {
+			List<TableMetadata> rows = null;
+			try {
+				rows = fetchPage();
+			} catch (SynBioHubException e) {
+				// the next scroll tries again
+				e.printStackTrace();
+			}
+			List<TableMetadata> page = rows;
+			SwingUtilities.invokeLater(() -> {
+				fetching = false;
+				if (page != null && !cancelled) {
+					tableUpdater.appendRows(page, this);
+				}
+			});
+		});
+	}
+
+	@Override
+	protected Object doInBackground() throws Exception {
 		cancelPrevious();
-		loading.start();
+
+		// show the cached result right away, and go on from where it ended if
+		// it isn't complete. A result derived from a shorter filter text starts
+		// again from offset 0.
+		query = createQuery(roles, types, collections, filterText, objectType);
+		SynBioHubQueryCache.Result cached = SynBioHubQueryCache.get(key);
+		if (cached != null) {
+			identified.addAll(cached.rows);
+			offset = cached.offset;
+			complete = cached.complete;
+			publishIdentified();
+			if (complete || offset > 0) {
+				return null;
+			}
+		}
+
+		if (cached == null) {
+			loading.start();
+		}
 
 		// collections are empty, so we show only root collections
-		if (isRoot) {
+		if (cached == null && isRoot) {
 			ArrayList<IdentifiedMetadata> rootCollections = synBioHub.getRootCollectionMetadata();
 			if (!rootCollections.isEmpty()) {
 				identified.addAll(getTableMetadata(rootCollections, null));
-				return identified;
+				complete = true;
+				publishIdentified();
+				SynBioHubQueryCache.put(key, new SynBioHubQueryCache.Result(fetched, 0, true));
+				return null;
 			}
 		}
 
 		// collections aren't empty, or there aren't any root collections
-		if (objectType != null && objectType !="" && objectType != "Collection") {
+		if (cached == null && objectType != null && objectType !="" && objectType != "Collection") {
 			for (URI collection : collections) {
 				try {
 					identified.addAll(getTableMetadata(synBioHub.getSubCollectionMetadata(collection), null));
@@ -86,10 +189,62 @@ public class SynBioHubQuery extends SwingWorker<Object, Object> {
 			}
 		}
 
-		// fetch parts
+		// fetch the first page of parts, fetchMore fetches the others
+		if (!cancelled) {
+			publish(fetchPage());
+		}
+		return null;
+	}
+
+	/**
+	 * Fetches the page at offset and returns its rows, together with any
+	 * collections found before, that weren't handed over yet. Runs on the
+	 * worker for the first page and on PAGES for the others, never both at
+	 * once.
+	 */
+	private List<TableMetadata> fetchPage() throws SynBioHubException {
+		int limit = pageSize > 0 ? pageSize : QUERY_LIMIT;
+		query.setOffset(offset);
+		query.setLimit(limit);
+		List<IdentifiedMetadata> page = synBioHub.search(query);
+		offset += page.size();
+		complete = page.size() < limit;
+		identified.addAll(getTableMetadata(null, page));
+		List<TableMetadata> rows = takeIdentified();
+		SynBioHubQueryCache.put(key, new SynBioHubQueryCache.Result(fetched, offset, complete));
+		return rows;
+	}
+
+	/**
+	 * Hands the rows fetched since the last call to the EDT.
+	 */
+	private void publishIdentified() {
+		publish(takeIdentified());
+	}
+
+	/**
+	 * Returns the rows fetched since the last call, leaving out the ones
+	 * already returned (a derived result shows some of them early).
+	 */
+	private List<TableMetadata> takeIdentified() {
+		List<TableMetadata> rows = new ArrayList<TableMetadata>();
+		for (TableMetadata row : identified) {
+			if (seen.add(row.identified.getUri())) {
+				rows.add(row);
+			}
+		}
+		fetched.addAll(rows);
+		identified = new ArrayList<TableMetadata>();
+		return rows;
+	}
+
+	/**
+	 * Returns a query for parts with all the roles, types and collections
+	 * whose name matches filterText. Empty criteria aren't added.
+	 */
+	static SearchQuery createQuery(Set<URI> roles, Set<URI> types, Set<URI> collections, String filterText,
+			String objectType) {
 		SearchQuery query = new SearchQuery();
-		query.setOffset(0);
-		query.setLimit(QUERY_LIMIT);
 
 		for (URI role : roles) {
 			SearchCriteria criteria = new SearchCriteria();
@@ -126,9 +281,7 @@ public class SynBioHubQuery extends SwingWorker<Object, Object> {
 			query.addCriteria(objectTypeCriteria);
 		}
 
-		identified.addAll(getTableMetadata(null, synBioHub.search(query)));
-
-		return identified;
+		return query;
 	}
 
 	/**
@@ -155,17 +308,48 @@ public class SynBioHubQuery extends SwingWorker<Object, Object> {
 	}
 	
 	private void cancelPrevious() {
+		cancelLast();
+		FederatedQuery.cancelLast();
+		lastQuery = this;
+	}
+
+	/**
+	 * Stops the last query from updating the table.
+	 */
+	static void cancelLast() {
 		if (lastQuery!=null) {
 			lastQuery.loading.stop();
 			lastQuery.cancelled = true;
 		}
-		lastQuery = this;
+	}
+
+	@Override
+	protected void process(List<List<TableMetadata>> pages) {
+		if (cancelled) {
+			return;
+		}
+		loading.stop();
+		for (List<TableMetadata> page : pages) {
+			if (!shown) {
+				shown = true;
+				tableUpdater.updateTable(new ArrayList<TableMetadata>(page), filterText, this);
+			} else {
+				tableUpdater.appendRows(page, this);
+			}
+		}
+		fetching = false;
 	}
 
 	@Override
 	protected void done() {
-		if(!cancelled) {
-			tableUpdater.updateTable(identified, filterText);
+		// the search failed before the first page, so show what was found
+		// (the subcollections) like before
+		if (!cancelled && !shown) {
+			shown = true;
+			tableUpdater.updateTable(identified, filterText, this);
+		} else if (!cancelled) {
+			// fetchMore ignores the table until the first page is done
+			tableUpdater.appendRows(new ArrayList<TableMetadata>(), this);
 		}
 		loading.stop();
 	}
@@ -0,0 +1,151 @@
+package edu.utah.ece.async.sboldesigner.sbol.editor.dialog;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of SynBioHubQueries, so browsing back and forth between collections
+ * and roles doesn't search SynBioHub again. Results expire after a while and
+ * the least recently used are evicted first.
+ *
+ * A complete result also gives a head start to queries that only differ in a
+ * filter text it is a prefix of: its rows are filtered locally and shown while
+ * the query searches again, since SynBioHub's matching may differ from ours.
+ */
+public class SynBioHubQueryCache {
+	private SynBioHubQueryCache() {
+	}
+
+	private static final long TTL = TimeUnit.MINUTES.toMillis(15);
+	private static final int MAX_ENTRIES = 256;
+
+	/**
+	 * Everything a SynBioHubQuery searches by.
+	 */
+	static final class Key {
+		final String location;
+		final Set<URI> roles;
+		final Set<URI> types;
+		final Set<URI> collections;
+		final String objectType;
+		final boolean isRoot;
+		final String filterText;
+
+		Key(String location, Set<URI> roles, Set<URI> types, Set<URI> collections, String objectType,
+				boolean isRoot, String filterText) {
+			this.location = location;
+			this.roles = roles;
+			this.types = types;
+			this.collections = collections;
+			this.objectType = objectType;
+			this.isRoot = isRoot;
+			this.filterText = filterText == null ? "" : filterText;
+		}
+
+		/**
+		 * Returns whether other searches the same except for the filter text.
+		 */
+		boolean sameSearch(Key other) {
+			return Objects.equals(location, other.location) && Objects.equals(roles, other.roles)
+					&& Objects.equals(types, other.types) && Objects.equals(collections, other.collections)
+					&& Objects.equals(objectType, other.objectType) && isRoot == other.isRoot;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return sameSearch(other) && filterText.equals(other.filterText);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(location, roles, types, collections, objectType, isRoot, filterText);
+		}
+	}
+
+	/**
+	 * The rows found by a query. offset is where the next page of the search
+	 * starts if the result isn't complete.
+	 */
+	static final class Result {
+		final List<TableMetadata> rows;
+		final int offset;
+		final boolean complete;
+		final long time;
+
+		Result(List<TableMetadata> rows, int offset, boolean complete) {
+			this.rows = Collections.unmodifiableList(new ArrayList<TableMetadata>(rows));
+			this.offset = offset;
+			this.complete = complete;
+			this.time = System.currentTimeMillis();
+		}
+	}
+
+	private static final LinkedHashMap<Key, Result> RESULTS = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Returns the cached result of key. Failing that, returns the rows of a
+	 * complete result whose filter text is a prefix of key's that match key's
+	 * filter text, as an incomplete result to be searched again from offset 0.
+	 * Such derived results aren't cached. Returns null if there is neither.
+	 */
+	static synchronized Result get(Key key) {
+		long now = System.currentTimeMillis();
+		RESULTS.values().removeIf(result -> now - result.time > TTL);
+
+		Result result = RESULTS.get(key);
+		if (result != null) {
+			return result;
+		}
+
+		String filter = key.filterText.toLowerCase();
+		for (Map.Entry<Key, Result> entry : RESULTS.entrySet()) {
+			Key cachedKey = entry.getKey();
+			Result cached = entry.getValue();
+			if (!cached.complete || !cachedKey.sameSearch(key)
+					|| !filter.startsWith(cachedKey.filterText.toLowerCase())) {
+				continue;
+			}
+
+			List<TableMetadata> rows = new ArrayList<TableMetadata>();
+			for (TableMetadata row : cached.rows) {
+				// collections are listed whatever the filter text, parts were
+				// searched by it
+				if (row.isCollection || row.matches(filter)) {
+					rows.add(row);
+				}
+			}
+			return new Result(rows, 0, false);
+		}
+		return null;
+	}
+
+	static synchronized void put(Key key, Result result) {
+		RESULTS.put(key, result);
+	}
+
+	/**
+	 * Forgets all the results, e.g. when logging in or out changes what the
+	 * user can see.
+	 */
+	public static synchronized void clear() {
+		RESULTS.clear();
+	}
+}
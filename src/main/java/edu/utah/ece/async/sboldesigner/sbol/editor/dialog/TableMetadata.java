@@ -2,8 +2,11 @@ package edu.utah.ece.async.sboldesigner.sbol.editor.dialog;
 
 import org.synbiohub.frontend.IdentifiedMetadata;
 
+import edu.utah.ece.async.sboldesigner.sbol.editor.Registry;
+
 /**
- * A wrapper for IdentifiedMetadata that also knows if it's a collection
+ * A wrapper for IdentifiedMetadata that also knows if it's a collection, and
+ * which registry it was found in if it came from a FederatedQuery
  */
 public class TableMetadata {
 
@@ -11,8 +14,28 @@ public class TableMetadata {
 
 	public IdentifiedMetadata identified;
 
+	public Registry registry;
+
 	public TableMetadata(IdentifiedMetadata identified, boolean isCollection) {
+		this(identified, isCollection, null);
+	}
+
+	public TableMetadata(IdentifiedMetadata identified, boolean isCollection, Registry registry) {
 		this.identified = identified;
 		this.isCollection = isCollection;
+		this.registry = registry;
+	}
+
+	/**
+	 * Approximates SynBioHub's search by name: filter (in lower case) is part
+	 * of the display id, name or description.
+	 */
+	boolean matches(String filter) {
+		return contains(identified.getDisplayId(), filter) || contains(identified.getName(), filter)
+				|| contains(identified.getDescription(), filter);
+	}
+
+	private static boolean contains(String s, String filter) {
+		return s != null && s.toLowerCase().contains(filter);
 	}
 }
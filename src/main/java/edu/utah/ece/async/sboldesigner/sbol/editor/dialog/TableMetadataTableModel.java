@@ -8,6 +8,10 @@ class TableMetadataTableModel extends AbstractListTableModel<TableMetadata> {
 	private static final String[] COLUMNS = { "Type", "Display Id", "Name", "Version", "Description" };
 	private static final double[] WIDTHS = { 0.1, 0.2, 0.2, 0.1, 0.4 };
 
+	/**
+	 * Further pages of results can be appended with addElements, so
+	 * components should be modifiable.
+	 */
 	public TableMetadataTableModel(List<TableMetadata> components) {
 		super(components, COLUMNS, WIDTHS);
 	}
@@ -40,6 +40,18 @@ public abstract class AbstractListTableModel<T> extends AbstractTableModel {
 		fireTableDataChanged();
 	}
 
+	/**
+	 * Appends components to the elements, which must be modifiable.
+	 */
+	public void addElements(List<T> components) {
+		if (components.isEmpty()) {
+			return;
+		}
+		int first = elements.size();
+		elements.addAll(components);
+		fireTableRowsInserted(first, elements.size() - 1);
+	}
+
 	public int getColumnCount() {
 		return columns.length;
 	}